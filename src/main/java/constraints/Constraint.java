@@ -33,6 +33,7 @@ import constraints.global.Sum.SumSimple.SumSimpleEQ;
 import constraints.global.Sum.SumWeighted.SumWeightedEQ;
 import dashboard.Control.OptionsConstraints;
 import heuristics.HeuristicVariablesDynamic.WdegVariant;
+import interfaces.Observers.ObserverOnBacktracks.ObserverOnBacktracksSystematic;
 import interfaces.Observers.ObserverOnConstruction;
 import interfaces.SpecificPropagator;
 import interfaces.Tags.TagAC;
@@ -706,6 +707,9 @@ public abstract class Constraint implements ObserverOnConstruction, Comparable<C
 					break;
 				}
 			}
+		if (futvars.size() == 1) // the constraint no more contributes to the dynamic degree of its variables
+			for (Variable y : scp)
+				y.dynamicDegree--;
 	}
 
 	/**
@@ -720,6 +724,9 @@ public abstract class Constraint implements ObserverOnConstruction, Comparable<C
 		assert x.assigned() && scp[futvars.dense[futvars.size()]] == x;
 		futvars.limit++;
 		// }
+		if (futvars.size() == 2) // the constraint contributes again to the dynamic degree of its variables
+			for (Variable y : scp)
+				y.dynamicDegree++;
 	}
 
 	/**
@@ -1044,6 +1051,8 @@ public abstract class Constraint implements ObserverOnConstruction, Comparable<C
 		}
 		if (time > x.time && this instanceof TagCallCompleteFiltering && !(this instanceof TagNotCallCompleteFiltering))
 			return true;
+		if (this instanceof ObserverOnBacktracksSystematic)
+			problem.solver.stackConstraint(this); // reversible structures may be modified at the current depth
 		int nBefore = problem.nValueRemovals;
 		boolean consistent = this instanceof SpecificPropagator ? ((SpecificPropagator) this).runPropagator(x) : genericFiltering(x);
 		if (!consistent || problem.nValueRemovals != nBefore) {
@@ -58,7 +58,7 @@ public abstract class ConstraintExtension extends Constraint implements TagAC, T
 	 * Various filtering algorithms for extension (table) constraints
 	 */
 	public static enum Extension {
-		V, VA, STR1, STR2, STR3, STR1N, STR2N, CT, CMDDO, CMDDS; // , RPWC, RPWC2;
+		V, VA, STR1, STR2, STR3, STR1N, STR2N, CT, CTN, CMDDO, CMDDS, CMDD4R; // , RPWC, RPWC2;
 	}
 
 	/**********************************************************************************************
@@ -291,6 +291,13 @@ public abstract class ConstraintExtension extends Constraint implements TagAC, T
 			positive = !positive;
 		}
 		ConstraintExtension c = build(pb, scp, positive, starred);
+		if (positive && !starred && c instanceof TagStarredCompatible && scp[0] instanceof VariableInteger && pb.head.control.extension.compress(m.length)) {
+			int[][] original = m; // as for table keys, we assume that the address of tuples can be used
+			String key = c.signature() + " " + original;
+			int[][] compressed = pb.head.structureSharing.mapForCompressedTables.computeIfAbsent(key, k -> Table.compress(original, c.doms));
+			if (compressed.length < m.length)
+				m = compressed; // the same solutions are kept, with fewer (starred) tuples
+		}
 		c.storeTuples(m, positive);
 		return c;
 	}
@@ -365,7 +372,9 @@ public abstract class ConstraintExtension extends Constraint implements TagAC, T
 	public void cloneStructures(boolean onlyConflictsStructure) {
 		super.cloneStructures(onlyConflictsStructure);
 		if (!onlyConflictsStructure && extStructure.registeredCtrs().size() > 1) {
-			extStructure.unregister(this);
+			synchronized (extStructure) { // because the structure may be shared with other heads (portfolio mode)
+				extStructure.unregister(this);
+			}
 			extStructure = Reflector.buildObject(extStructure.getClass().getSimpleName(), ExtensionStructure.class, this, extStructure);
 		}
 	}
@@ -400,7 +409,8 @@ public abstract class ConstraintExtension extends Constraint implements TagAC, T
 	public final void storeTuples(int[][] tuples, boolean positive) {
 		String tableKey = signature() + " " + tuples + " " + positive;
 		// TODO be careful, we assume that the address of tuples can be used. Is that correct?
-		String key = defineKey(problem.features.collecting.tableKeys.computeIfAbsent(tableKey, k -> "r" + problem.features.collecting.tableKeys.size()));
+		Map<String, String> tableKeys = problem.head.structureSharing.mapForTableKeys;
+		String key = defineKey(tableKeys.computeIfAbsent(tableKey, k -> "r" + tableKeys.size()));
 		control((positive && this instanceof TagPositive) || (!positive && this instanceof TagNegative)
 				|| (!(this instanceof TagPositive) && !(this instanceof TagNegative)), positive + " " + this.getClass().getName());
 
@@ -37,65 +37,85 @@ import variables.Variable;
  * This is the code for CHybrid to deal with so-called hybrid/smart tables. The code follows a Simple Tabular Reduction
  * (STR) general scheme. See "The Smart Table Constraint", CPAIOR 2015: 271-287, by J.-B. Mairy, Y. Deville, and C.
  * Lecoutre. <br />
- * IMPORTANT: the code is under revision, and is planned to be finalized within the end of year 2021.
+ * IMPORTANT: the code is under revision, and is planned to be finalized within the end of year 2021. <br />
+ * When the option hybridCT is set, hybrid tables are filtered by CTHybrid (a bitset-based version) instead.
  * 
  * @author Christophe Lecoutre
  */
-public final class CHybrid extends ExtensionSpecific {
+public class CHybrid extends ExtensionSpecific {
 
 	/**********************************************************************************************
 	 * Static methods
 	 *********************************************************************************************/
 
+	/**
+	 * Builds and returns a hybrid table constraint, whose filtering algorithm is chosen according to the options
+	 * 
+	 * @param pb
+	 *            the problem to which the constraint is attached
+	 * @param scp
+	 *            the scope of the constraint
+	 * @param hybridTuples
+	 *            the hybrid tuples of the constraint
+	 * @return a hybrid table constraint
+	 */
+	public static Constraint build(Problem pb, Variable[] scp, HybridTuple... hybridTuples) {
+		return pb.head.control.extension.hybridCT ? new CTHybrid(pb, scp, hybridTuples) : new CHybrid(pb, scp, hybridTuples);
+	}
+
+	public static Constraint build(Problem pb, Variable[] scp, Stream<HybridTuple> hybridTuples) {
+		return build(pb, scp, hybridTuples.toArray(HybridTuple[]::new));
+	}
+
 	public static Constraint allEqual(Problem pb, Variable[] list) {
 		HybridTuple ht = new HybridTuple(IntStream.range(1, list.length).mapToObj(i -> eq(list[0], list[i])));
-		return new CHybrid(pb, list, ht);
+		return build(pb, list, ht);
 	}
 
 	public static Constraint notAllEqual(Problem pb, Variable[] list) {
 		Stream<HybridTuple> hts = IntStream.range(1, list.length).mapToObj(i -> new HybridTuple(ne(list[0], list[i])));
-		return new CHybrid(pb, list, hts);
+		return build(pb, list, hts);
 	}
 
 	public static Constraint atMost1(Problem pb, Variable[] list, Variable value) {
 		control(!value.presentIn(list), () -> "Not handled for the moment");
 		Stream<HybridTuple> hts = IntStream.range(0, list.length)
 				.mapToObj(i -> new HybridTuple(IntStream.range(0, list.length).filter(j -> j != i).mapToObj(j -> ne(value, list[j]))));
-		return new CHybrid(pb, pb.distinctSorted(pb.vars(list, value)), hts);
+		return build(pb, pb.distinctSorted(pb.vars(list, value)), hts);
 	}
 
 	public static Constraint element(Problem pb, Variable[] list, Variable index, Variable value) {
 		Variable[] scp = pb.distinct(pb.vars(list, index, value));
 		control(index.dom.firstValue() == 0 && scp.length == list.length + 2, () -> "Not handled for the moment");
 		Stream<HybridTuple> hts = IntStream.range(0, list.length).mapToObj(i -> new HybridTuple(eq(index, i), eq(list[i], value)));
-		return new CHybrid(pb, scp, hts);
+		return build(pb, scp, hts);
 	}
 
 	public static Constraint minimum(Problem pb, Variable[] list, Variable min) {
 		control(!min.presentIn(list), () -> "Not handled for the moment");
 		Stream<HybridTuple> hts = IntStream.range(0, list.length)
 				.mapToObj(i -> new HybridTuple(IntStream.range(0, list.length).mapToObj(j -> j != i ? le(list[i], list[j]) : eq(list[i], min))));
-		return new CHybrid(pb, pb.distinctSorted(pb.vars(list, min)), hts);
+		return build(pb, pb.distinctSorted(pb.vars(list, min)), hts);
 	}
 
 	public static Constraint maximum(Problem pb, Variable[] list, Variable max) {
 		control(!max.presentIn(list), () -> "Not handled for the moment");
 		Stream<HybridTuple> hts = IntStream.range(0, list.length)
 				.mapToObj(i -> new HybridTuple(IntStream.range(0, list.length).mapToObj(j -> j != i ? ge(list[i], list[j]) : eq(list[i], max))));
-		return new CHybrid(pb, pb.distinctSorted(pb.vars(list, max)), hts);
+		return build(pb, pb.distinctSorted(pb.vars(list, max)), hts);
 	}
 
 	public static Constraint lexicographicL(Problem pb, Variable[] t1, Variable[] t2, boolean strict) {
 		control(t1.length == t2.length);
 		Stream<HybridTuple> hts = IntStream.range(0, t1.length).mapToObj(i -> new HybridTuple(
 				IntStream.range(0, i + 1).mapToObj(j -> j < i ? eq(t1[j], t2[j]) : i == t1.length - 1 ? le(t1[i], t2[i]) : lt(t1[i], t2[i]))));
-		return new CHybrid(pb, pb.distinctSorted(pb.vars(t1, t2)), hts);
+		return build(pb, pb.distinctSorted(pb.vars(t1, t2)), hts);
 	}
 
 	public static Constraint noOverlap(Problem pb, Variable x1, Variable x2, int w1, int w2) {
 		HybridTuple ht1 = new HybridTuple(ge(x2, add(x1, w1))); // x2 >= x1 + w1
 		HybridTuple ht2 = new HybridTuple(ge(x1, add(x2, w2))); // x1 >= x2 + w2
-		return new CHybrid(pb, pb.vars(x1, x2), ht1, ht2);
+		return build(pb, pb.vars(x1, x2), ht1, ht2);
 	}
 
 	public static Constraint noOverlap(Problem pb, Variable x1, Variable y1, Variable x2, Variable y2, int w1, int h1, int w2, int h2) {
@@ -103,7 +123,7 @@ public final class CHybrid extends ExtensionSpecific {
 		HybridTuple ht2 = new HybridTuple(ge(x1, add(x2, w2))); // x1 >= x2 + w2
 		HybridTuple ht3 = new HybridTuple(ge(y2, add(y1, h1))); // y2 >= y1 + h1
 		HybridTuple ht4 = new HybridTuple(ge(y1, add(y2, h2))); // y1 >= y2 + h2
-		return new CHybrid(pb, pb.vars(x1, y1, x2, y2), ht1, ht2, ht3, ht4);
+		return build(pb, pb.vars(x1, y1, x2, y2), ht1, ht2, ht3, ht4);
 	}
 
 	public static Constraint noOverlap(Problem pb, Variable x1, Variable y1, Variable x2, Variable y2, Variable w1, Variable h1, Variable w2, Variable h2) {
@@ -116,7 +136,7 @@ public final class CHybrid extends ExtensionSpecific {
 		HybridTuple ht6 = new HybridTuple(eq(h1, h1.dom.lastValue()), ge(y2, add(y1, h1.dom.lastValue())));
 		HybridTuple ht7 = new HybridTuple(eq(h2, h2.dom.firstValue()), ge(y1, add(y2, h2.dom.firstValue())));
 		HybridTuple ht8 = new HybridTuple(eq(h2, h2.dom.lastValue()), ge(y1, add(y2, h2.dom.lastValue())));
-		return new CHybrid(pb, pb.vars(x1, y1, x2, y2, w1, h1, w2, h2), ht1, ht2, ht3, ht4, ht5, ht6, ht7, ht8);
+		return build(pb, pb.vars(x1, y1, x2, y2, w1, h1, w2, h2), ht1, ht2, ht3, ht4, ht5, ht6, ht7, ht8);
 	}
 
 	public static Constraint distinctVectors(Problem pb, Variable[] t1, Variable[] t2) {
@@ -126,7 +146,7 @@ public final class CHybrid extends ExtensionSpecific {
 		Variable[] tt2 = match ? IntStream.range(0, t1.length).filter(i -> t1[i] != t2[i]).mapToObj(i -> t2[i]).toArray(Variable[]::new) : t2;
 		control(tt1.length == tt2.length);
 		Stream<HybridTuple> hts = IntStream.range(0, tt1.length).mapToObj(i -> new HybridTuple(ne(tt1[i], tt2[i])));
-		return new CHybrid(pb, pb.distinctSorted(pb.vars(tt1, tt2)), hts);
+		return build(pb, pb.distinctSorted(pb.vars(tt1, tt2)), hts);
 	}
 
 	/**********************************************************************************************
@@ -258,7 +278,9 @@ public final class CHybrid extends ExtensionSpecific {
 	 */
 	protected void initRestorationStructuresBeforeFiltering() {
 		int depth = problem.solver.depth();
-		assert 0 <= lastDepth && lastDepth <= depth : depth + " " + lastDepth + " " + this;
+		if (lastDepth > depth) // possible since the constraint is only restored at the levels where it was filtered
+			lastDepth = depth; // stacked sizes above the last level where it was filtered are just copies
+		assert 0 <= lastDepth : depth + " " + lastDepth + " " + this;
 		for (int i = lastDepth + 1; i <= depth; i++)
 			System.arraycopy(lastSizesStack[lastDepth], 0, lastSizesStack[i], 0, lastSizesStack[lastDepth].length);
 		lastSizes = lastSizesStack[depth];
@@ -21,6 +21,7 @@ import org.xcsp.common.structures.Transition;
 import constraints.ConstraintExtension.ExtensionSpecific;
 import constraints.extension.structures.ExtensionStructure;
 import constraints.extension.structures.MDD;
+import constraints.extension.structures.MDD.Flat;
 import constraints.extension.structures.MDD.Node;
 import interfaces.Tags.TagPositive;
 import interfaces.Tags.TagStarredCompatible;
@@ -46,11 +47,14 @@ public abstract class CMDD extends ExtensionSpecific implements TagPositive {
 	public void afterProblemConstruction(int n) {
 		super.afterProblemConstruction(n);
 		this.mdd = (MDD) extStructure();
-		this.trueNodes = new int[mdd.nNodes()];
+		if (extOptions.flatMDD && this instanceof CMDDO)
+			this.flat = mdd.flatten(extOptions.nThreads);
+		int nNodes = flat != null ? flat.nNodes() : mdd.nNodes();
+		this.trueNodes = new int[nNodes];
 		if (extOptions.decremental)
-			this.set = new SetSparseReversible(mdd.nNodes(), n + 1, false);
+			this.set = new SetSparseReversible(nNodes, n + 1, false);
 		else
-			this.falseNodes = new int[mdd.nNodes()];
+			this.falseNodes = new int[nNodes];
 		this.ac = Variable.litterals(scp).booleanArray();
 		this.cnts = new int[scp.length];
 	}
@@ -72,6 +76,11 @@ public abstract class CMDD extends ExtensionSpecific implements TagPositive {
 	 */
 	protected MDD mdd;
 
+	/**
+	 * The flat form of the MDD, when used instead of nodes (null otherwise)
+	 */
+	protected Flat flat;
+
 	/**
 	 * The reversible sparse set storing the indexes (of nodes) of the current MDD
 	 */
@@ -236,10 +245,55 @@ public abstract class CMDD extends ExtensionSpecific implements TagPositive {
 		return supported;
 	}
 
+	/**
+	 * Explores the flat form of the MDD from the specified node so as to find supports
+	 * 
+	 * @param u
+	 *            the number of a node in the flat form of the MDD
+	 * @param level
+	 *            the level of the node
+	 * @return true if the terminal (true) node can be reached (while following valid arcs) from the specified node
+	 */
+	protected boolean explore(int u, int level) {
+		if (u == 1 || trueNodes[u] == trueTimestamp)
+			return true;
+		if (u == 0 || (set != null && set.contains(u)) || (set == null && falseNodes[u] == falseTimestamp))
+			return false;
+		Domain dom = scp[level].dom;
+		boolean supported = false, finished = false;
+		int from = flat.arcStarts[u], to = flat.arcStarts[u + 1];
+		if (dom.size() < to - from) {
+			for (int a = dom.first(); a != -1 && !finished; a = dom.next(a)) {
+				int e = flat.arc(u, a);
+				if (e != -1 && explore(flat.targets[e], level + 1)) {
+					supported = true;
+					finished = manageSuccessfulExploration(level, a);
+				}
+			}
+		} else {
+			for (int e = from; e < to && !finished; e++) {
+				if (dom.contains(flat.labels[e]) && explore(flat.targets[e], level + 1)) {
+					supported = true;
+					finished = manageSuccessfulExploration(level, flat.labels[e]);
+				}
+			}
+		}
+		if (supported)
+			trueNodes[u] = trueTimestamp;
+		else if (set != null)
+			set.add(u, problem.solver.depth());
+		else
+			falseNodes[u] = falseTimestamp;
+		return supported;
+	}
+
 	@Override
 	public boolean runPropagator(Variable dummy) {
 		beforeFiltering();
-		explore(mdd.root);
+		if (flat != null)
+			explore(flat.root(), 0);
+		else
+			explore(mdd.root);
 		return updateDomains();
 	}
 
@@ -267,7 +321,7 @@ public abstract class CMDD extends ExtensionSpecific implements TagPositive {
 
 		public CMDDO(Problem pb, Variable[] scp, Transition[] transitions) {
 			this(pb, scp);
-			String mddKey = signature() + " " + transitions;
+			String mddKey = signature() + (extOptions.flatMDD ? " flat " : " ") + transitions;
 			// TODO be careful, we assume above that the address of transitions can be used. Is that correct?
 			this.extStructure = problem.head.structureSharing.mapForMDDs.computeIfAbsent(mddKey, r -> new MDD(this, transitions));
 			// what about the key?
@@ -275,7 +329,11 @@ public abstract class CMDD extends ExtensionSpecific implements TagPositive {
 
 		public CMDDO(Problem pb, Variable[] scp, Automaton automaton) {
 			this(pb, scp);
-			this.extStructure = new MDD(this, automaton);
+			String mddKey = signature() + (extOptions.flatMDD ? " flat " : " ") + automaton.transitions + " " + automaton.startState + " "
+					+ String.join(" ", automaton.finalStates);
+			// as above, we assume that the address of transitions can be used (useful when parsed objects are shared)
+			// the form is part of the key since a flattened MDD no more references its nodes (heads may differ on -fmdd)
+			this.extStructure = problem.head.structureSharing.mapForMDDs.computeIfAbsent(mddKey, r -> new MDD(this, automaton));
 		}
 
 		public CMDDO(Problem pb, Variable[] scp, int[] coeffs, Object limits) {
@@ -0,0 +1,371 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence). 
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS. 
+ * 
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package constraints.extension;
+
+import static utility.Kit.control;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.xcsp.common.structures.Automaton;
+import org.xcsp.common.structures.Transition;
+
+import constraints.ConstraintExtension.ExtensionSpecific;
+import constraints.extension.structures.ExtensionStructure;
+import constraints.extension.structures.MDD;
+import constraints.extension.structures.MDD.Flat;
+import interfaces.Tags.TagPositive;
+import problem.Problem;
+import utility.Kit;
+import variables.Domain;
+import variables.Variable;
+
+/**
+ * This is the code for an incremental MDD-based filtering algorithm, in the spirit of MDD4R, as described in:
+ * "Improving GAC-4 for Table and MDD Constraints", CP 2014: 606-621, by G. Perez and J.-C. Régin. Instead of traversing
+ * the whole MDD at each call (as in CMDD), the arcs that are still valid are stored in reversible sparse sets (one per
+ * layer), and only the arcs invalidated by the values removed since the last call are processed. A node that loses
+ * all its outgoing (resp., incoming) arcs is deleted, with its incoming (resp., outgoing) arcs. A value is removed as
+ * soon as no valid arc is labelled by it. The propagator works on the flat form of the MDD.
+ * 
+ * @author Christophe Lecoutre
+ */
+public final class CMDD4R extends ExtensionSpecific implements TagPositive {
+
+	/**********************************************************************************************
+	 * Implementing Interfaces
+	 *********************************************************************************************/
+
+	@Override
+	public void afterProblemConstruction(int n) {
+		super.afterProblemConstruction(n);
+		buildArcs(((MDD) extStructure()).flatten(extOptions.nThreads));
+		this.lastSizes = Stream.of(doms).mapToInt(dom -> dom.initSize()).toArray();
+		this.stamps = Kit.repeat(-1, 2 * scp.length);
+		this.trail = new int[3 * 2 * scp.length];
+		this.queue = new int[2 * nIns.length];
+		this.lost = new int[2 * Stream.of(doms).mapToInt(dom -> dom.initSize()).sum()];
+	}
+
+	@Override
+	public void restoreBefore(int depth) {
+		while (top > 0 && trail[top - 1] >= depth) {
+			int old = trail[top - 2], index = trail[top - 3];
+			top -= 3;
+			stamps[index] = -1;
+			if (index < scp.length) {
+				for (int i = limits[index] + 1; i <= old; i++) {
+					int e = dense[index][i];
+					nOuts[sources[e]]++;
+					nIns[targets[e]]++;
+					nSupports[index][labels[e]]++;
+				}
+				limits[index] = old;
+			} else
+				lastSizes[index - scp.length] = old;
+		}
+		if (depth <= firstCallDepth)
+			firstCall = true; // all arcs are valid again
+	}
+
+	/**********************************************************************************************
+	 * Class members
+	 *********************************************************************************************/
+
+	/**
+	 * The flat form of the MDD, where nodes are numbered layer by layer (the True terminal node has number 1, and the
+	 * root has number 2); arcs leaving a node u are at indexes ranging from flat.arcStarts[u] to flat.arcStarts[u+1]-1
+	 */
+	private Flat flat;
+
+	/**
+	 * sources[e] is the number of the node at the origin of the arc e
+	 */
+	private int[] sources;
+
+	/**
+	 * targets[e] is the number of the node at the end of the arc e (shared with the flat form of the MDD)
+	 */
+	private int[] targets;
+
+	/**
+	 * labels[e] is the value index labelling the arc e (shared with the flat form of the MDD)
+	 */
+	private int[] labels;
+
+	/**
+	 * dense[x] contains the arcs of the layer x (i.e., arcs labelled by value indexes of x); those at positions ranging
+	 * from 0 to limits[x] are currently valid
+	 */
+	private int[][] dense;
+
+	/**
+	 * limits[x] is the position of the last valid arc in dense[x]
+	 */
+	private int[] limits;
+
+	/**
+	 * positions[e] is the position of the arc e in the dense array of its layer
+	 */
+	private int[] positions;
+
+	/**
+	 * arcsOf[x][a] contains the arcs labelled by the value index a of the variable at position x
+	 */
+	private int[][][] arcsOf;
+
+	/**
+	 * inArcs[u] contains the arcs entering the node u
+	 */
+	private int[][] inArcs;
+
+	/**
+	 * nOuts[u] is the number of valid arcs leaving the node u
+	 */
+	private int[] nOuts;
+
+	/**
+	 * nIns[u] is the number of valid arcs entering the node u (this is not relevant for the root and the True terminal
+	 * node)
+	 */
+	private int[] nIns;
+
+	/**
+	 * nSupports[x][a] is the number of valid arcs labelled by the value index a of the variable at position x
+	 */
+	private int[][] nSupports;
+
+	/**
+	 * lastSizes[x] is the domain size of x at the last call
+	 */
+	private int[] lastSizes;
+
+	/**
+	 * The trail, storing triplets (i,v,d) with d the depth where v was the value of the ith reversible integer before
+	 * being modified; the first scp.length integers are limits, the other ones are last sizes
+	 */
+	private int[] trail;
+
+	/**
+	 * The number of integers currently stored in the trail
+	 */
+	private int top;
+
+	/**
+	 * stamps[i] is the depth where the ith reversible integer has been trailed for the last time (or -1)
+	 */
+	private int[] stamps;
+
+	/**
+	 * The nodes (numbers) that have been deleted, and whose arcs must still be deleted
+	 */
+	private int[] queue;
+
+	/**
+	 * The pairs (x,a) that have lost their last valid arc, stored in sequence
+	 */
+	private int[] lost;
+
+	private int lostSize;
+
+	private boolean firstCall = true;
+
+	/**
+	 * The depth at which the propagator has been called for the first time
+	 */
+	private int firstCallDepth = -1;
+
+	@Override
+	protected ExtensionStructure buildExtensionStructure() {
+		return new MDD(this);
+	}
+
+	public CMDD4R(Problem pb, Variable[] scp) {
+		super(pb, scp);
+		control(scp.length >= 1);
+	}
+
+	public CMDD4R(Problem pb, Variable[] scp, int[][] tuples) {
+		this(pb, scp);
+		storeTuples(tuples, true);
+	}
+
+	public CMDD4R(Problem pb, Variable[] scp, Transition[] transitions) {
+		this(pb, scp);
+		String mddKey = signature() + " " + transitions;
+		this.extStructure = problem.head.structureSharing.mapForMDDs.computeIfAbsent(mddKey, r -> new MDD(this, transitions));
+	}
+
+	public CMDD4R(Problem pb, Variable[] scp, Automaton automaton) {
+		this(pb, scp);
+		String mddKey = signature() + " " + automaton.transitions + " " + automaton.startState + " " + String.join(" ", automaton.finalStates);
+		this.extStructure = problem.head.structureSharing.mapForMDDs.computeIfAbsent(mddKey, r -> new MDD(this, automaton));
+	}
+
+	private int nArcs() {
+		return sources.length;
+	}
+
+	/**
+	 * Builds the structures used for managing the arcs of the specified flat form of the MDD
+	 */
+	private void buildArcs(Flat flat) {
+		this.flat = flat;
+		this.labels = flat.labels;
+		this.targets = flat.targets;
+		int nNodes = flat.nNodes(), nArcs = labels.length;
+		this.layers = new int[nNodes];
+		for (int x = 0; x < scp.length; x++)
+			Arrays.fill(layers, flat.layerStarts[x], flat.layerStarts[x + 1], x);
+		this.sources = new int[nArcs];
+		this.nOuts = new int[nNodes];
+		this.nIns = new int[nNodes];
+		this.nSupports = Variable.litterals(scp).intArray();
+		this.limits = new int[scp.length];
+		for (int u = 2; u < nNodes; u++) {
+			nOuts[u] = flat.arcStarts[u + 1] - flat.arcStarts[u];
+			for (int e = flat.arcStarts[u]; e < flat.arcStarts[u + 1]; e++) {
+				sources[e] = u;
+				nIns[targets[e]]++;
+				nSupports[layers[u]][labels[e]]++;
+				limits[layers[u]]++;
+			}
+		}
+		this.dense = new int[scp.length][];
+		this.arcsOf = new int[scp.length][][];
+		for (int x = 0; x < scp.length; x++) {
+			dense[x] = new int[limits[x]];
+			arcsOf[x] = new int[doms[x].initSize()][];
+			for (int a = 0; a < arcsOf[x].length; a++)
+				arcsOf[x][a] = new int[nSupports[x][a]];
+			limits[x] = -1;
+		}
+		this.positions = new int[nArcs];
+		this.inArcs = new int[nNodes][];
+		for (int u = 2; u < nNodes; u++)
+			inArcs[u] = new int[nIns[u]];
+		int[] nInsTmp = new int[nNodes], nSupportsTmp[] = Variable.litterals(scp).intArray();
+		for (int e = 0; e < nArcs; e++) {
+			int x = layers[sources[e]], v = targets[e];
+			dense[x][positions[e] = ++limits[x]] = e;
+			arcsOf[x][labels[e]][nSupportsTmp[x][labels[e]]++] = e;
+			if (v != 1)
+				inArcs[v][nInsTmp[v]++] = e;
+		}
+	}
+
+	/**
+	 * layers[u] is the layer (i.e., the position of the variable) of the node u
+	 */
+	private int[] layers;
+
+	private boolean isValid(int e) {
+		return positions[e] <= limits[layers[sources[e]]];
+	}
+
+	private void trail(int index, int value) {
+		int depth = problem.solver.depth();
+		if (stamps[index] == depth)
+			return;
+		if (top + 3 > trail.length)
+			trail = Arrays.copyOf(trail, trail.length * 2);
+		trail[top++] = index;
+		trail[top++] = value;
+		trail[top++] = depth;
+		stamps[index] = depth;
+	}
+
+	private int queueSize;
+
+	/**
+	 * Deletes the specified arc of the specified layer, while recording the nodes and the values that lose their last
+	 * valid arc
+	 */
+	private void delete(int e, int x) {
+		trail(x, limits[x]);
+		int i = positions[e], j = limits[x]--, f = dense[x][j];
+		dense[x][i] = f;
+		positions[f] = i;
+		dense[x][j] = e;
+		positions[e] = j;
+		if (--nOuts[sources[e]] == 0)
+			queue[queueSize++] = sources[e];
+		if (--nIns[targets[e]] == 0 && targets[e] != 1)
+			queue[queueSize++] = targets[e];
+		if (--nSupports[x][labels[e]] == 0) {
+			lost[lostSize++] = x;
+			lost[lostSize++] = labels[e];
+		}
+	}
+
+	private void deleteArcsOf(int x, int a) {
+		for (int e : arcsOf[x][a])
+			if (isValid(e))
+				delete(e, x);
+	}
+
+	@Override
+	public boolean runPropagator(Variable dummy) {
+		queueSize = lostSize = 0;
+		if (firstCall) {
+			firstCall = false;
+			firstCallDepth = problem.solver.depth();
+			for (int x = 0; x < scp.length; x++)
+				for (int a = doms[x].first(); a != -1; a = doms[x].next(a))
+					if (nSupports[x][a] == 0) {
+						lost[lostSize++] = x;
+						lost[lostSize++] = a;
+					}
+		}
+		// deleting the arcs labelled by the values removed since the last call
+		for (int x = 0; x < scp.length; x++) {
+			Domain dom = doms[x];
+			int domSize = dom.size(), nRemoved = lastSizes[x] - domSize;
+			if (nRemoved == 0)
+				continue;
+			if (nRemoved <= domSize) {
+				for (int cnt = nRemoved - 1, a = dom.lastRemoved(); cnt >= 0; cnt--) {
+					deleteArcsOf(x, a);
+					a = dom.prevRemoved(a);
+				}
+			} else {
+				for (int i = limits[x]; i >= 0; i--) {
+					int e = dense[x][i];
+					if (!dom.contains(labels[e]))
+						delete(e, x);
+				}
+			}
+			trail(scp.length + x, lastSizes[x]);
+			lastSizes[x] = domSize;
+		}
+		// deleting the arcs of the nodes that have been deleted (upwards and downwards)
+		while (queueSize > 0) {
+			int u = queue[--queueSize];
+			for (int e = flat.arcStarts[u]; e < flat.arcStarts[u + 1]; e++)
+				if (isValid(e))
+					delete(e, layers[u]);
+			for (int e : inArcs[u])
+				if (isValid(e))
+					delete(e, layers[u] - 1);
+		}
+		// removing the values without any valid arc
+		for (int i = 0; i < lostSize; i += 2) {
+			int x = lost[i], a = lost[i + 1];
+			if (doms[x].contains(a)) {
+				if (doms[x].remove(a) == false)
+					return false;
+				trail(scp.length + x, lastSizes[x]);
+				lastSizes[x] = doms[x].size();
+			}
+		}
+		return true;
+	}
+}
@@ -18,6 +18,7 @@ import java.util.stream.Stream;
 
 import org.xcsp.common.Constants;
 
+import constraints.extension.structures.MasksOffHeap;
 import constraints.extension.structures.Table;
 import interfaces.Tags.TagStarredCompatible;
 import problem.Problem;
@@ -54,35 +55,20 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 		this.lastWord0Then1 = tuples.length % 64 != 0 ? Bit.bitsAt1From(tuples.length % 64) : 0L;
 		fillTo1(current);
 
-		this.starred = ((Table) extStructure()).starred;
-		this.masks = Stream.of(scp).map(x -> new long[x.dom.initSize()][nWords]).toArray(long[][][]::new);
-		if (!this.starred) {
-			for (int x = 0; x < scp.length; x++) {
-				long[][] mask = masks[x];
-				for (int j = 0; j < tuples.length; j++)
-					Bit.setTo1(mask[tuples[j][x]], j);
-				maskCompression(mask);
-			}
-		} else {
-			for (int x = 0; x < scp.length; x++) {
-				long[][] mask = masks[x];
-				for (int j = 0; j < tuples.length; j++)
-					if (tuples[j][x] != Constants.STAR)
-						Bit.setTo1(mask[tuples[j][x]], j);
-					else
-						for (int a = 0; a < mask.length; a++)
-							Bit.setTo1(mask[a], j);
-				maskCompression(mask);
-			}
-			this.masksS = Stream.of(scp).map(x -> new long[x.dom.initSize()][nWords]).toArray(long[][][]::new);
-			for (int x = 0; x < scp.length; x++) {
-				long[][] mask = masksS[x];
-				for (int j = 0; j < tuples.length; j++)
-					if (tuples[j][x] != Constants.STAR)
-						Bit.setTo1(mask[tuples[j][x]], j);
-				maskCompression(mask);
+		Table table = (Table) extStructure();
+		this.starred = table.starred;
+		synchronized (table) { // the table may be shared by several heads (portfolio mode)
+			if (table.masks == null && table.masksOffHeap == null) {
+				if (extOptions.offHeapLimit != -1 && tuples.length >= extOptions.offHeapLimit)
+					buildMasksOffHeap(table, nWords);
+				else
+					buildMasks(table, nWords);
 			}
 		}
+		this.masks = table.masks;
+		this.masksS = table.masksS;
+		this.masksOffHeap = table.masksOffHeap;
+		this.masksSOffHeap = table.masksSOffHeap;
 
 		this.stackedWords = new long[nWords * factorStacked];
 		this.stackedIndexes = new int[nWords * factorStacked];
@@ -95,6 +81,80 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 		this.firstCall = true;
 	}
 
+	/**
+	 * The number of tuples handled by a task when masks are built in parallel (a multiple of 64, so that tasks never
+	 * write in the same words)
+	 */
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * Sets to 1, in the specified masks of x, the bits of the tuples whose positions are in the specified range; a
+	 * tuple with * at position x is considered for all indexes only if stars is true
+	 */
+	private void fillMasks(long[][] mask, int x, boolean stars, int from, int to) {
+		for (int j = from; j < to; j++)
+			if (tuples[j][x] != Constants.STAR)
+				Bit.setTo1(mask[tuples[j][x]], j);
+			else if (stars)
+				for (int a = 0; a < mask.length; a++)
+					Bit.setTo1(mask[a], j);
+	}
+
+	/**
+	 * Fills the specified masks, possibly in parallel (with tasks over ranges of tuples), and then compresses them
+	 */
+	private void fillMasks(long[][][] masks, boolean stars) {
+		int nThreads = extOptions.nThreads, nChunks = (tuples.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if (nThreads > 1)
+			Table.pool(nThreads).submit(() -> IntStream.range(0, scp.length * nChunks).parallel().forEach(k -> {
+				int x = k / nChunks, from = (k % nChunks) * CHUNK_SIZE;
+				fillMasks(masks[x], x, stars, from, Math.min(from + CHUNK_SIZE, tuples.length));
+			})).join();
+		else
+			for (int x = 0; x < scp.length; x++)
+				fillMasks(masks[x], x, stars, 0, tuples.length);
+		for (int x = 0; x < scp.length; x++)
+			maskCompression(masks[x]);
+	}
+
+	/**
+	 * Builds the masks of the specified table, which are then shared by all CT constraints registered with it
+	 */
+	private void buildMasks(Table table, int nWords) {
+		long[][][] masks = Stream.of(scp).map(x -> new long[x.dom.initSize()][nWords]).toArray(long[][][]::new);
+		fillMasks(masks, true);
+		if (table.starred) {
+			long[][][] masksS = Stream.of(scp).map(x -> new long[x.dom.initSize()][nWords]).toArray(long[][][]::new);
+			fillMasks(masksS, false);
+			table.masksS = masksS;
+		}
+		table.masks = masks;
+	}
+
+	/**
+	 * Builds the masks of the specified table outside the Java heap (in direct memory or in a memory-mapped file)
+	 */
+	private void buildMasksOffHeap(Table table, int nWords) {
+		int[] domSizes = Stream.of(scp).mapToInt(x -> x.dom.initSize()).toArray();
+		MasksOffHeap masks = new MasksOffHeap(domSizes, nWords, extOptions.mappedMasks);
+		for (int x = 0; x < scp.length; x++)
+			for (int j = 0; j < tuples.length; j++)
+				if (tuples[j][x] != Constants.STAR)
+					masks.setTo1(x, tuples[j][x], j);
+				else
+					for (int a = 0; a < domSizes[x]; a++)
+						masks.setTo1(x, a, j);
+		if (table.starred) {
+			MasksOffHeap masksS = new MasksOffHeap(domSizes, nWords, extOptions.mappedMasks);
+			for (int x = 0; x < scp.length; x++)
+				for (int j = 0; j < tuples.length; j++)
+					if (tuples[j][x] != Constants.STAR)
+						masksS.setTo1(x, tuples[j][x], j);
+			table.masksSOffHeap = masksS;
+		}
+		table.masksOffHeap = masks;
+	}
+
 	@Override
 	public final void restoreBefore(int depth) {
 		super.restoreBefore(depth);
@@ -116,18 +176,29 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 	/**
 	 * The current table (used as bit vector)
 	 */
-	private long[] current;
+	protected long[] current;
 
 	/**
-	 * masks[x][a] gives the mask for (x,a), used when filtering
+	 * masks[x][a] gives the mask for (x,a), used when filtering (redundant field, shared with the table)
 	 */
 	private long[][][] masks;
 
 	/**
-	 * masksS[x][a] gives the mask* for (x,a), used when filtering; this is useful for short tables
+	 * masksS[x][a] gives the mask* for (x,a), used when filtering; this is useful for short tables (redundant field,
+	 * shared with the table)
 	 */
 	private long[][][] masksS;
 
+	/**
+	 * The masks, when stored off-heap (redundant field, shared with the table); null if masks are stored in the heap
+	 */
+	private MasksOffHeap masksOffHeap;
+
+	/**
+	 * The masks*, when stored off-heap (redundant field, shared with the table)
+	 */
+	private MasksOffHeap masksSOffHeap;
+
 	/**
 	 * A buffer, used as bit vector during filtering
 	 */
@@ -165,7 +236,7 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 	/**
 	 * Reversible dense set indicating the words that are currently not 0
 	 */
-	private SetDenseReversible nonZeros;
+	protected SetDenseReversible nonZeros;
 
 	/**
 	 * residues[x][a] is the index of the word where a support was found the last time for (x,a)
@@ -177,7 +248,7 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 	/**
 	 * Field indicating if this is the first time the filtering algorithm (propagator) is called
 	 */
-	private boolean firstCall = true;
+	protected boolean firstCall = true;
 
 	/**
 	 * Builds an extension constraint, with CT as specific filtering method
@@ -203,6 +274,39 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 		t[t.length - 1] = lastWord0Then1;
 	}
 
+	/**
+	 * Applies a bitwise 'or' on the specified bit vector and the mask for (x,a), or the mask* for (x,a) if star is true
+	 */
+	private void or(long[] inout, int x, int a, boolean star) {
+		if (masksOffHeap == null)
+			Bit.or(inout, star ? masksS[x][a] : masks[x][a], nonZeros);
+		else
+			(star ? masksSOffHeap : masksOffHeap).or(inout, x, a, nonZeros);
+	}
+
+	private void orInverse(long[] inout, int x, int a) {
+		if (masksOffHeap == null)
+			Bit.orInverse(inout, masks[x][a], nonZeros);
+		else
+			masksOffHeap.orInverse(inout, x, a, nonZeros);
+	}
+
+	private boolean nullIntersection(int x, int a, int j) {
+		return masksOffHeap == null ? Bit.nullIntersection(current, masks[x][a], j) : masksOffHeap.nullIntersection(current, x, a, j);
+	}
+
+	private int firstNonNullIntersectionIndex(int x, int a) {
+		return masksOffHeap == null ? Bit.firstNonNullIntersectionIndex(current, masks[x][a], nonZeros)
+				: masksOffHeap.firstNonNullIntersectionIndex(current, x, a, nonZeros);
+	}
+
+	/**
+	 * Returns the jth word of the mask for (x,a)
+	 */
+	protected final long maskWord(int x, int a, int j) {
+		return masksOffHeap == null ? masks[x][a][j] : masksOffHeap.word(x, a, j);
+	}
+
 	@Override
 	protected final void manageLastPastVar() {
 		// we no more refer to lastSafeNumber because it may have been modified earlier in beforeFiltering
@@ -250,7 +354,11 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 		}
 	}
 
-	private boolean firstCall() {
+	/**
+	 * Initializes the current table by discarding the tuples that are no more valid. This is called when the propagator
+	 * is called for the first time.
+	 */
+	protected final void initializeCurrentTable() {
 		firstCall = false;
 		lastSizes = lastSizesStack[0];
 		lastDepth = 0;
@@ -258,7 +366,8 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 		for (int x = 0; x < scp.length; x++) {
 			Domain dom = doms[x];
 			for (int a = dom.lastRemoved(); a != -1; a = dom.prevRemoved(a))
-				Bit.or(tmp, !starred ? masks[x][a] : masksS[x][a], nonZeros);
+				or(tmp, x, a, starred);
+			lastSizes[x] = dom.size();
 		}
 		Bit.inverse(tmp, nonZeros);
 		for (int i = nonZeros.limit; i >= 0; i--) {
@@ -270,10 +379,14 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 					nonZeros.removeAtPosition(i, 0);
 			}
 		}
+	}
+
+	private boolean firstCall() {
+		initializeCurrentTable();
 		for (int x = 0; x < scp.length; x++) {
 			Domain dom = doms[x];
 			for (int a = dom.first(); a != -1; a = dom.next(a)) {
-				int r = Bit.firstNonNullIntersectionIndex(current, masks[x][a], nonZeros);
+				int r = firstNonNullIntersectionIndex(x, a);
 				if (r != -1)
 					residues[x][a] = r;
 				else if (dom.remove(a) == false)
@@ -308,16 +421,16 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 	}
 
 	@Override
-	protected final boolean updateDomains() {
+	protected boolean updateDomains() {
 		// we update domains (inconsistency is no more possible)
 		for (int i = sSupSize - 1; i >= 0; i--) {
 			int x = sSup[i];
 			Domain dom = doms[x];
 			for (int a = dom.first(); a != -1; a = dom.next(a)) {
 				int r = residues[x][a];
-				if (Bit.nullIntersection(current, masks[x][a], r) == false) // if ((current[r] & masks[x][a][r]) != 0L)
+				if (nullIntersection(x, a, r) == false) // if ((current[r] & masks[x][a][r]) != 0L)
 					continue;
-				r = Bit.firstNonNullIntersectionIndex(current, masks[x][a], nonZeros);
+				r = firstNonNullIntersectionIndex(x, a);
 				if (r != -1) {
 					residues[x][a] = r;
 				} else
@@ -328,11 +441,11 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 		return true;
 	}
 
-	@Override
-	public final boolean runPropagator(Variable z) {
-		if (firstCall)
-			return firstCall();
-		beforeFiltering();
+	/**
+	 * Updates the current table by discarding the tuples that are no more valid, given the domains that have been
+	 * reduced since the last call
+	 */
+	protected final void updateCurrentTable() {
 		// we compute in tmp the bit vector denoting all deleted tuples (and then we inverse it)
 		fillTo0(tmp);
 		for (int i = sValSize - 1; i >= 0; i--) {
@@ -340,15 +453,15 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 			Domain dom = doms[x];
 			if (deltaSizes[x] <= dom.size()) {
 				for (int cnt = deltaSizes[x] - 1, a = dom.lastRemoved(); cnt >= 0; cnt--) {
-					Bit.or(tmp, !starred ? masks[x][a] : masksS[x][a], nonZeros);
+					or(tmp, x, a, starred);
 					a = dom.prevRemoved(a);
 				}
 			} else if (dom.size() == 1) {
-				Bit.orInverse(tmp, masks[x][dom.first()], nonZeros);
+				orInverse(tmp, x, dom.first());
 			} else {
 				fillTo0(tmp2);
 				for (int a = dom.first(); a != -1; a = dom.next(a))
-					Bit.or(tmp2, masks[x][a], nonZeros);
+					or(tmp2, x, a, false);
 				Bit.orInverse(tmp, tmp2, nonZeros); // Bit.or(tmp, Bit.inverse(tmp2, nonZeros), nonZeros);
 			}
 		}
@@ -364,6 +477,14 @@ public class CT extends STR1Optimized implements TagStarredCompatible {
 					nonZeros.removeAtPosition(i, depth);
 			}
 		}
+	}
+
+	@Override
+	public boolean runPropagator(Variable z) {
+		if (firstCall)
+			return firstCall();
+		beforeFiltering();
+		updateCurrentTable();
 		if (nonZeros.size() == 0)
 			return z.dom.fail(); // inconsistency detected
 		return updateDomains();
@@ -0,0 +1,388 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence). 
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS. 
+ * 
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package constraints.extension;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import constraints.extension.structures.TableHybrid.HybridTuple;
+import problem.Problem;
+import sets.SetDenseReversible;
+import utility.Bit;
+import variables.Domain;
+import variables.Variable;
+
+/**
+ * This is the code for CT (Compact-Table) adapted to hybrid/smart tables, following the approach described in: Hélène
+ * Verhaeghe, Christophe Lecoutre, Yves Deville, Pierre Schaus: Extending Compact-Table to Basic Smart Tables. CP 2017:
+ * 297-314. The current table is a reversible sparse bit-set of hybrid tuples. For each literal (x,a), a mask gives the
+ * hybrid tuples whose underlying tuple and unary restrictions are compatible with (x,a), so that the current table is
+ * updated in a delta-based or reset-based manner as for CT. Hybrid tuples involving binary restrictions are kept in the
+ * same bit-set, but their validity is checked, and their supports collected, by means of their restrictions (as in
+ * CHybrid), and only for those that are still present in the current table. <br />
+ * IMPORTANT: contrary to the paper, binary restrictions are not handled by incremental masks with residues; such
+ * hybrid tuples are checked one by one at each call, so CTHybrid is mainly relevant for tables whose restrictions are
+ * (mostly) unary.
+ *
+ * @author Christophe Lecoutre
+ */
+public final class CTHybrid extends CHybrid {
+
+	/**********************************************************************************************
+	 * Restoration
+	 *********************************************************************************************/
+
+	@Override
+	public void afterProblemConstruction(int n) {
+		super.afterProblemConstruction(n);
+		int nWords = (int) Math.ceil(hybridTuples.length / 64.0);
+		this.current = new long[nWords];
+		Arrays.fill(current, Bit.ALL_LONG_BITS_TO_1);
+		if (hybridTuples.length % 64 != 0)
+			current[nWords - 1] = Bit.bitsAt1To(hybridTuples.length % 64);
+		this.tmp = new long[nWords];
+		this.tmp2 = new long[nWords];
+		this.masks = Stream.of(scp).map(x -> new long[x.dom.initSize()][nWords]).toArray(long[][][]::new);
+		this.masksS = Stream.of(scp).map(x -> new long[x.dom.initSize()][nWords]).toArray(long[][][]::new);
+		this.complexAt = new long[scp.length][nWords];
+		this.complexes = new long[nWords];
+		this.deltaBased = new boolean[scp.length];
+		for (int x = 0; x < scp.length; x++) {
+			deltaBased[x] = true;
+			int initSize = scp[x].dom.initSize();
+			for (int i = 0; i < hybridTuples.length; i++) {
+				HybridTuple hybridTuple = hybridTuples[i];
+				if (hybridTuple.isComplexAt(x)) {
+					Bit.setTo1(complexAt[x], i);
+					Bit.setTo1(complexes, i);
+				}
+				int cnt = 0;
+				for (int a = 0; a < initSize; a++)
+					if (hybridTuple.isCompatibleWith(x, a)) {
+						Bit.setTo1(masks[x][a], i);
+						cnt++;
+					}
+				if (cnt < initSize) { // the hybrid tuple is not universal for x
+					for (int a = 0; a < initSize; a++)
+						if (hybridTuple.isCompatibleWith(x, a))
+							Bit.setTo1(masksS[x][a], i);
+					if (cnt > 1)
+						deltaBased[x] = false; // several (but not all) values of x are compatible with the hybrid tuple
+				}
+			}
+		}
+		this.stackedWords = new long[nWords * factorStacked];
+		this.stackedIndexes = new int[nWords * factorStacked];
+		this.stackStructure = new int[nWords * factorStack];
+		this.modifiedWords = new long[nWords];
+		Arrays.fill(modifiedWords, -1);
+		this.deltaSizes = new int[scp.length];
+		this.nonZeros = new SetDenseReversible(nWords, n + 1);
+		this.residues = Variable.litterals(scp).intArray();
+		this.sCol = new int[scp.length];
+		this.firstCall = true;
+	}
+
+	@Override
+	public void restoreBefore(int depth) {
+		super.restoreBefore(depth);
+		if (topStack != -1 && stackStructure[topStack - 1] == depth) {
+			// from the most recently stacked word to the oldest one (a word may be stacked several times at a level)
+			for (int i = 0; i < stackStructure[topStack]; i++)
+				current[stackedIndexes[topStacked - i]] = stackedWords[topStacked - i];
+			topStacked -= stackStructure[topStack];
+			topStack -= 2;
+		}
+		nonZeros.restoreLimitAtLevel(depth);
+		if (depth <= firstCallDepth)
+			firstCall = true; // the current table is back to its initial state
+	}
+
+	/**********************************************************************************************
+	 * Class members
+	 *********************************************************************************************/
+
+	/**
+	 * The current table (used as bit vector), containing the hybrid tuples that are still valid
+	 */
+	private long[] current;
+
+	/**
+	 * masks[x][a] gives the hybrid tuples that are compatible with (x,a), when considering underlying tuples and unary
+	 * restrictions only; all indexes are compatible for a position involved in a binary restriction
+	 */
+	private long[][][] masks;
+
+	/**
+	 * masksS[x][a] gives the hybrid tuples that are compatible with (x,a) without being compatible with all indexes of
+	 * x; this is useful for delta-based updates
+	 */
+	private long[][][] masksS;
+
+	/**
+	 * complexAt[x] gives the hybrid tuples for which the variable at position x is involved in a binary restriction
+	 */
+	private long[][] complexAt;
+
+	/**
+	 * The hybrid tuples involving at least one binary restriction
+	 */
+	private long[] complexes;
+
+	/**
+	 * deltaBased[x] indicates if a delta-based update is possible for x, i.e., if no hybrid tuple is compatible with
+	 * several (but not all) indexes of x
+	 */
+	private boolean[] deltaBased;
+
+	/**
+	 * Two buffers, used as bit vectors during filtering
+	 */
+	private long[] tmp, tmp2;
+
+	private int factorStacked = 10, factorStack = 10; // factors used for enlarging arrays when necessary
+	private long[] stackedWords; // stores the values of the words that have been stacked
+	private int[] stackedIndexes; // stores the indexes of the words that have been stacked
+	private int[] stackStructure; // stores, in sequence, pairs (d,nb) with d the depth where nb words have been stacked
+	private int topStacked = -1, topStack = -1;
+
+	/**
+	 * modifiedWords[i] indicates the (safe) number of the node where the ith word has been stacked for the last time
+	 */
+	private long[] modifiedWords;
+
+	/**
+	 * deltaSizes[x] indicates how many values are in the delta set of x
+	 */
+	private int[] deltaSizes;
+
+	/**
+	 * Reversible dense set indicating the words that are currently not 0
+	 */
+	private SetDenseReversible nonZeros;
+
+	/**
+	 * residues[x][a] is the index of the word where a support was found the last time for (x,a)
+	 */
+	private int[][] residues;
+
+	/**
+	 * The (dense) set of positions of variables for which support collecting must still be done on hybrid tuples with
+	 * binary restrictions
+	 */
+	private int[] sCol;
+
+	/**
+	 * Field indicating if this is the first time the filtering algorithm (propagator) is called
+	 */
+	private boolean firstCall = true;
+
+	/**
+	 * The depth at which the propagator has been called for the first time
+	 */
+	private int firstCallDepth;
+
+	/**
+	 * Builds a hybrid table constraint, with CT as specific filtering method
+	 *
+	 * @param pb
+	 *            the problem to which the constraint is attached
+	 * @param scp
+	 *            the scope of the constraint
+	 * @param hybridTuples
+	 *            the hybrid tuples of the constraint
+	 */
+	public CTHybrid(Problem pb, Variable[] scp, HybridTuple... hybridTuples) {
+		super(pb, scp, hybridTuples);
+	}
+
+	private void wordModified(int index, long oldValue) {
+		long number = problem.solver.stats.safeNumber();
+		if (modifiedWords[index] == number)
+			return;
+		int depth = problem.solver.depth();
+		if (topStack == -1 || stackStructure[topStack - 1] != depth) {
+			if (topStack + 3 >= stackStructure.length)
+				stackStructure = Arrays.copyOf(stackStructure, current.length * (factorStack *= 2));
+			stackStructure[++topStack] = depth;
+			stackStructure[++topStack] = 1; // first modified word at this level
+		} else
+			stackStructure[topStack]++; // another modified word at this level
+		if (topStacked + 3 >= stackedWords.length) {
+			stackedWords = Arrays.copyOf(stackedWords, current.length * (factorStacked *= 2));
+			stackedIndexes = Arrays.copyOf(stackedIndexes, current.length * factorStacked);
+		}
+		stackedWords[++topStacked] = oldValue;
+		stackedIndexes[topStacked] = index;
+		modifiedWords[index] = number;
+	}
+
+	private void updateWord(int i, long l, int depth) {
+		int j = nonZeros.dense[i];
+		if (current[j] != l) {
+			wordModified(j, current[j]);
+			current[j] = l;
+			if (l == 0L)
+				nonZeros.removeAtPosition(i, depth);
+		}
+	}
+
+	@Override
+	protected void beforeFiltering() {
+		initRestorationStructuresBeforeFiltering();
+		sValSize = sSupSize = 0;
+		if (firstCall) {
+			firstCall = false;
+			firstCallDepth = problem.solver.depth();
+			for (int x = 0; x < scp.length; x++) {
+				deltaSizes[x] = Integer.MAX_VALUE; // to force a reset-based update
+				sVal[sValSize++] = x;
+				lastSizes[x] = doms[x].size();
+			}
+		} else {
+			Variable lastPast = problem.solver.futVars.lastPast();
+			int x = lastPast == null ? -1 : positionOf(lastPast);
+			if (x != -1 && lastSizes[x] != 1) {
+				deltaSizes[x] = lastSizes[x] - 1;
+				sVal[sValSize++] = x;
+				lastSizes[x] = 1;
+			}
+			for (int i = futvars.limit; i >= 0; i--) {
+				x = futvars.dense[i];
+				int domSize = doms[x].size();
+				if (lastSizes[x] != domSize) {
+					deltaSizes[x] = lastSizes[x] - domSize;
+					sVal[sValSize++] = x;
+					lastSizes[x] = domSize;
+				}
+			}
+		}
+		for (int i = futvars.limit; i >= 0; i--)
+			if (doms[futvars.dense[i]].size() > 1)
+				sSup[sSupSize++] = futvars.dense[i];
+	}
+
+	/**
+	 * Updates the current table by discarding the hybrid tuples that are no more valid, given the domains that have
+	 * been reduced since the last call
+	 */
+	private void updateCurrentTable() {
+		// we compute in tmp the bit vector denoting all deleted hybrid tuples (and then we inverse it)
+		for (int i = nonZeros.limit; i >= 0; i--)
+			tmp[nonZeros.dense[i]] = 0L;
+		for (int i = sValSize - 1; i >= 0; i--) {
+			int x = sVal[i];
+			Domain dom = doms[x];
+			if (deltaBased[x] && deltaSizes[x] <= dom.size()) {
+				for (int cnt = deltaSizes[x] - 1, a = dom.lastRemoved(); cnt >= 0; cnt--) {
+					Bit.or(tmp, masksS[x][a], nonZeros);
+					a = dom.prevRemoved(a);
+				}
+			} else if (dom.size() == 1) {
+				Bit.orInverse(tmp, masks[x][dom.first()], nonZeros);
+			} else {
+				for (int j = nonZeros.limit; j >= 0; j--)
+					tmp2[nonZeros.dense[j]] = 0L;
+				for (int a = dom.first(); a != -1; a = dom.next(a))
+					Bit.or(tmp2, masks[x][a], nonZeros);
+				Bit.orInverse(tmp, tmp2, nonZeros);
+			}
+		}
+		int depth = problem.solver.depth();
+		for (int i = nonZeros.limit; i >= 0; i--) {
+			int j = nonZeros.dense[i];
+			updateWord(i, current[j] & ~tmp[j], depth);
+		}
+		// we discard the remaining hybrid tuples whose binary restrictions are no more valid
+		for (int i = nonZeros.limit; i >= 0; i--) {
+			int j = nonZeros.dense[i];
+			long w = current[j] & complexes[j], l = current[j];
+			while (w != 0L) {
+				int k = Long.numberOfTrailingZeros(w);
+				w &= w - 1;
+				if (!hybridTuples[j * 64 + k].isValid(sVal, sValSize))
+					l &= ~(1L << k);
+			}
+			updateWord(i, l, depth);
+		}
+	}
+
+	/**
+	 * Collects, in nac, the indexes (of values) that are not supported by the current hybrid tuples involving binary
+	 * restrictions. Returns false if no such hybrid tuple is present.
+	 */
+	private boolean collectOnComplexTuples() {
+		boolean found = false;
+		int sColSize = sSupSize;
+		for (int i = nonZeros.limit; i >= 0 && sColSize > 0; i--) {
+			int j = nonZeros.dense[i];
+			long w = current[j] & complexes[j];
+			if (w != 0L && !found) {
+				found = true;
+				for (int k = 0; k < sSupSize; k++) {
+					int x = sSup[k];
+					nac[x].clear();
+					for (int a = doms[x].first(); a != -1; a = doms[x].next(a))
+						nac[x].add(a);
+					sCol[k] = x;
+				}
+			}
+			while (w != 0L && sColSize > 0) {
+				int k = Long.numberOfTrailingZeros(w);
+				w &= w - 1;
+				sColSize = hybridTuples[j * 64 + k].collect(sCol, sColSize);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns true if a hybrid tuple without binary restriction on x, and compatible with (x,a), is still in the
+	 * current table.
+	 */
+	private boolean supportedBySimpleTuple(int x, int a) {
+		long[] mask = masks[x][a], complexMask = complexAt[x];
+		int r = residues[x][a];
+		if ((current[r] & mask[r] & ~complexMask[r]) != 0L)
+			return true;
+		for (int i = nonZeros.limit; i >= 0; i--) {
+			int j = nonZeros.dense[i];
+			if ((current[j] & mask[j] & ~complexMask[j]) != 0L) {
+				residues[x][a] = j;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected boolean updateDomains() {
+		boolean complex = collectOnComplexTuples();
+		for (int i = sSupSize - 1; i >= 0; i--) {
+			int x = sSup[i];
+			Domain dom = doms[x];
+			for (int a = dom.first(); a != -1; a = dom.next(a))
+				if ((!complex || nac[x].contains(a)) && !supportedBySimpleTuple(x, a) && dom.remove(a) == false)
+					return false;
+			lastSizes[x] = dom.size();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean runPropagator(Variable z) {
+		beforeFiltering();
+		updateCurrentTable();
+		if (nonZeros.size() == 0)
+			return z.dom.fail(); // inconsistency detected
+		return updateDomains();
+	}
+}
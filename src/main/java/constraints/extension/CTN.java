@@ -0,0 +1,87 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence). 
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS. 
+ * 
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package constraints.extension;
+
+import interfaces.Tags.TagNegative;
+import problem.Problem;
+import variables.Domain;
+import variables.Variable;
+
+/**
+ * This is the code for CT (Compact-Table) adapted to negative tables, as described in: Hélène Verhaeghe, Christophe
+ * Lecoutre, Pierre Schaus: Extending Compact-Table to Negative and Short Tables. AAAI 2017: 3951-3957. The current
+ * table contains the conflicts that are still valid. A value (x,a) is removed when the number of valid conflicts
+ * involving it is equal to the number of valid tuples involving it (i.e., the size of the Cartesian product of the
+ * other domains).
+ *
+ * @author Christophe Lecoutre
+ */
+public final class CTN extends CT implements TagNegative {
+
+	/**
+	 * Builds an extension constraint, with CT for negative tables as specific filtering method
+	 *
+	 * @param pb
+	 *            the problem to which the constraint is attached
+	 * @param scp
+	 *            the scope of the constraint
+	 */
+	public CTN(Problem pb, Variable[] scp) {
+		super(pb, scp);
+	}
+
+	/**
+	 * Returns the number of tuples of the current table that are also present in the mask for (x,a), or in the whole
+	 * current table if x is -1
+	 */
+	private long nConflictsIn(int x, int a) {
+		long cnt = 0;
+		for (int i = nonZeros.limit; i >= 0; i--) {
+			int j = nonZeros.dense[i];
+			cnt += Long.bitCount(x == -1 ? current[j] : current[j] & maskWord(x, a, j));
+		}
+		return cnt;
+	}
+
+	@Override
+	public boolean runPropagator(Variable z) {
+		if (firstCall) {
+			initializeCurrentTable();
+			sSupSize = 0;
+			for (int i = futvars.limit; i >= 0; i--)
+				if (doms[futvars.dense[i]].size() > 1)
+					sSup[sSupSize++] = futvars.dense[i];
+		} else {
+			beforeFiltering();
+			updateCurrentTable();
+		}
+		if (nonZeros.size() == 0)
+			return entailed(); // no more valid conflicts
+		long nConflicts = nConflictsIn(-1, -1), nValidTuples = Domain.nValidTuplesBounded(doms);
+		if (nConflicts == nValidTuples)
+			return z.dom.fail(); // all valid tuples are conflicts
+		// no possible inconsistency from now on, since at least one valid tuple is not a conflict. Note that all limits
+		// are computed with respect to the domains at the beginning of this loop (this is sound since removing values
+		// without supports cannot remove supports of other values)
+		for (int i = sSupSize - 1; i >= 0; i--) {
+			int x = sSup[i];
+			Domain dom = doms[x];
+			long limit = nValidTuples / dom.size(); // the number of valid tuples involving any value of x
+			if (nConflicts < limit)
+				continue;
+			for (int a = dom.first(); a != -1; a = dom.next(a))
+				if (nConflictsIn(x, a) == limit)
+					dom.remove(a);
+			// lastSizes[x] is not updated, so that conflicts involving removed values are discarded at next call
+		}
+		return true;
+	}
+}
@@ -118,7 +118,9 @@ public abstract class STR1Optimized extends STR1 {
 	protected final void initRestorationStructuresBeforeFiltering() {
 		if (extOptions.decremental) {
 			int depth = problem.solver.depth();
-			assert 0 <= lastDepth && lastDepth <= depth : depth + " " + lastDepth + " " + this;
+			if (lastDepth > depth) // possible since the constraint is only restored at the levels where it was filtered
+				lastDepth = depth; // stacked sizes above the last level where it was filtered are just copies
+			assert 0 <= lastDepth : depth + " " + lastDepth + " " + this;
 			for (int i = lastDepth + 1; i <= depth; i++)
 				System.arraycopy(lastSizesStack[lastDepth], 0, lastSizesStack[i], 0, scp.length);
 			lastSizes = lastSizesStack[depth];
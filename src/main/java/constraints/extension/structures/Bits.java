@@ -238,7 +238,7 @@ public final class Bits extends ExtensionStructure {
 	}
 
 	@Override
-	public boolean removeTuple(int[] tuple) {
+	public boolean removeTuple(int[] tuple, Constraint c) {
 		assert registeredCtrs().size() == 1 && !sharing;
 		if ((sups0[tuple[0]][tuple[1] / Long.SIZE] & Bit.ONE_LONG_BIT_TO_1[tuple[1] % Long.SIZE]) == 0)
 			return false;
@@ -246,7 +246,7 @@ public final class Bits extends ExtensionStructure {
 		sups0[tuple[0]][tuple[1] / Long.SIZE] &= Bit.ONE_LONG_BIT_TO_0[tuple[1] % Long.SIZE];
 		if (sups1 != null)
 			sups1[tuple[1]][tuple[0] / Long.SIZE] &= Bit.ONE_LONG_BIT_TO_0[tuple[0] % Long.SIZE];
-		incrementNbTuplesRemoved();
+		incrementNbTuplesRemoved(c);
 		return true;
 	}
 
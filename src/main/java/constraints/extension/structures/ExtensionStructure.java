@@ -161,16 +161,18 @@ public abstract class ExtensionStructure implements ConstraintRegister {
 	 * 
 	 * @param t
 	 *            a tuple of indexes (of values)
+	 * @param c
+	 *            the constraint for which the tuple is removed (the structure may be shared by several heads)
 	 * @return true if the tuple has been removed (if it was already absent, false is returned)
 	 */
-	public boolean removeTuple(int[] t) {
+	public boolean removeTuple(int[] t, Constraint c) {
 		throw new AssertionError("relevant only for some subclasses when 2nd order consistencies are used");
 	}
 
 	/**
-	 * Increments the counter of removed tuples
+	 * Increments the counter of removed tuples, for the solver of the specified constraint
 	 */
-	protected final void incrementNbTuplesRemoved() {
-		firstRegisteredCtr().problem.solver.propagation.nTuplesRemoved++;
+	protected final void incrementNbTuplesRemoved(Constraint c) {
+		c.problem.solver.propagation.nTuplesRemoved++;
 	}
 }
\ No newline at end of file
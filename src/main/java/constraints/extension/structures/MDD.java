@@ -14,6 +14,7 @@ import static org.xcsp.common.Constants.STAR;
 import static utility.Kit.control;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -21,6 +22,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -33,9 +36,10 @@ import org.xcsp.common.structures.Automaton;
 import org.xcsp.common.structures.Transition;
 
 import constraints.Constraint;
-import constraints.extension.CMDD;
+import constraints.ConstraintExtension.ExtensionSpecific;
 import constraints.extension.CMDD.CMDDO;
 import constraints.extension.CMDD.CMDDS;
+import constraints.extension.CMDD4R;
 import utility.Kit;
 import utility.Kit.IntArrayHashKey;
 import variables.Domain;
@@ -348,6 +352,14 @@ public final class MDD extends ExtensionStructure {
 
 	@Override
 	public boolean checkIndexes(int[] t) {
+		if (flat != null) {
+			int u = flat.root();
+			for (int i = 0; u > 1; i++) {
+				int e = flat.arc(u, t[i]);
+				u = e == -1 ? 0 : flat.targets[e];
+			}
+			return u == 1;
+		}
 		if (starApart)
 			return checkWhenStarApart(t, 0, root);
 		Node node = root;
@@ -406,13 +418,13 @@ public final class MDD extends ExtensionStructure {
 		return nNodes != null ? nNodes : (nNodes = 2 + root.nInternalNodes(new HashSet<Integer>()));
 	}
 
-	public MDD(CMDD c) {
+	public MDD(ExtensionSpecific c) {
 		super(c);
 		this.arity = c.scp.length;
 		this.starApart = c instanceof CMDDS;
 	}
 
-	public MDD(CMDD c, Node root) {
+	public MDD(ExtensionSpecific c, Node root) {
 		this(c);
 		this.root = root;
 	}
@@ -433,7 +445,7 @@ public final class MDD extends ExtensionStructure {
 		return map;
 	}
 
-	public MDD(CMDDO c, Automaton automaton) {
+	public MDD(ExtensionSpecific c, Automaton automaton) {
 		this(c);
 		control(arity > 1 && IntStream.range(1, arity).allMatch(i -> c.doms[i].typeIdentifier() == c.doms[0].typeIdentifier()));
 		this.root = new Node(0, c.doms[0].initSize(), true, automaton.startState);
@@ -475,12 +487,12 @@ public final class MDD extends ExtensionStructure {
 		finalizeStoreTuples();
 	}
 
-	public MDD(CMDDO c, Transition[] transitions) {
+	public MDD(ExtensionSpecific c, Transition[] transitions) {
 		this(c);
 		storeTuplesFromTransitions(transitions, Stream.of(c.scp).map(x -> x.dom).toArray(Domain[]::new));
 	}
 
-	public MDD(CMDDO c, int[] coeffs, Object limits) {
+	public MDD(ExtensionSpecific c, int[] coeffs, Object limits) {
 		this(c);
 		storeTuplesFromKnapsack(coeffs, limits, Variable.initDomainValues(c.scp));
 	}
@@ -560,11 +572,15 @@ public final class MDD extends ExtensionStructure {
 			}
 			// constraint.setIndexValueSimilarity(true);
 		}
-		if (!reductionWhileProcessingTuples)
-			recursiveReduction(root, reductionMap);
+		if (!reductionWhileProcessingTuples && !toBeFlattened(c))
+			recursiveReduction(root, reductionMap); // otherwise, the MDD is reduced when flattened
 		finalizeStoreTuples();
 	}
 
+	private boolean toBeFlattened(Constraint c) {
+		return c instanceof CMDD4R || (c instanceof CMDDO && c.problem.head.control.extension.flatMDD);
+	}
+
 	public MDD storeTuplesFromTransitions(Transition[] transitions, Domain[] domains) {
 		Map<String, Node> nodes = new HashMap<>();
 		Set<String> possibleRoots = new HashSet<>(), notRoots = new HashSet<>();
@@ -657,6 +673,184 @@ public final class MDD extends ExtensionStructure {
 		Kit.log.info(" => " + cnt + " tuples");
 	}
 
+	/**********************************************************************************************
+	 * Flat form
+	 *********************************************************************************************/
+
+	/**
+	 * The class for the flat form of an MDD, where nodes and arcs are stored in parallel arrays of integers, layer by
+	 * layer. Nodes are numbered from 0: 0 for the False terminal node, 1 for the True terminal node, and then the nodes
+	 * of each level in turn (so, 2 for the root). Only the arcs that do not lead to the False terminal node are kept;
+	 * they are stored by increasing numbers of their origins, and then by increasing labels. The flat form is reduced:
+	 * there are no two equivalent nodes, and no node that cannot reach the True terminal node.
+	 */
+	public static final class Flat {
+
+		/**
+		 * layerStarts[l] is the number of the first node at level l; layerStarts[arity] is the number of nodes
+		 */
+		public final int[] layerStarts;
+
+		/**
+		 * arcStarts[u] is the index of the first arc leaving the node u; the arcs of u are at indexes ranging from
+		 * arcStarts[u] to arcStarts[u+1]-1
+		 */
+		public final int[] arcStarts;
+
+		/**
+		 * labels[e] is the value index labelling the arc e
+		 */
+		public final int[] labels;
+
+		/**
+		 * targets[e] is the number of the node at the end of the arc e
+		 */
+		public final int[] targets;
+
+		/**
+		 * Builds the flat form of the MDD rooted by the specified node. Nodes are collected layer by layer (from the
+		 * root), and then merged by hash-consing, layer by layer (from the last level): two nodes are equivalent if
+		 * they have the same arcs, when considering the reduced next layer. Each layer is processed in parallel when
+		 * several threads are asked for.
+		 */
+		private Flat(Node root, Node nodeF, Node nodeT, int arity, int nThreads) {
+			List<List<Node>> layers = new ArrayList<>();
+			Map<Node, Integer> indexes = new HashMap<>(); // index of each node in its layer
+			layers.add(Arrays.asList(root));
+			indexes.put(root, 0);
+			for (int l = 0; l < arity - 1; l++) {
+				List<Node> next = new ArrayList<>();
+				for (Node node : layers.get(l))
+					for (Node son : node.sons)
+						if (!son.isLeaf() && !indexes.containsKey(son)) {
+							control(son.level == l + 1);
+							indexes.put(son, next.size());
+							next.add(son);
+						}
+				layers.add(next);
+			}
+			// ranks[l][i] is the rank of the ith node of layer l in the reduced layer l (-1 if equivalent to nodeF)
+			int[][] ranks = new int[arity][];
+			// signatures[l] contains the arcs, as pairs (label,rank) with rank -1 for nodeT, of the reduced layer l
+			int[][][] signatures = new int[arity][][];
+			for (int l = arity - 1; l >= 0; l--) {
+				boolean last = l == arity - 1;
+				Node[] nodes = layers.get(l).toArray(new Node[0]);
+				int[] nextRanks = last ? null : ranks[l + 1];
+				int[][] sigs = parallel(nThreads, () -> stream(nThreads, nodes.length).mapToObj(i -> {
+					Node node = nodes[i];
+					int[] t = new int[2 * node.sons.length];
+					int cnt = 0;
+					for (int a = 0; a < node.sons.length; a++) {
+						Node son = node.sons[a];
+						control(son != nodeT || last);
+						int rank = son == nodeT ? -1 : son == nodeF ? -2 : nextRanks[indexes.get(son)];
+						if (rank != -2) {
+							t[cnt++] = a;
+							t[cnt++] = rank;
+						}
+					}
+					return Arrays.copyOf(t, cnt);
+				}).toArray(int[][]::new));
+				// hash-consing: the representative of a class of equivalent nodes is the one with the smallest index
+				Map<IntArrayHashKey, Integer> map = new ConcurrentHashMap<>();
+				int[] reps = parallel(nThreads, () -> {
+					stream(nThreads, nodes.length).filter(i -> sigs[i].length > 0).forEach(i -> map.merge(new IntArrayHashKey(sigs[i]), i, Math::min));
+					return stream(nThreads, nodes.length).map(i -> sigs[i].length == 0 ? -1 : map.get(new IntArrayHashKey(sigs[i]))).toArray();
+				});
+				ranks[l] = new int[nodes.length];
+				List<int[]> list = new ArrayList<>();
+				for (int i = 0; i < nodes.length; i++) {
+					if (reps[i] == i) {
+						ranks[l][i] = list.size();
+						list.add(sigs[i]);
+					} else
+						ranks[l][i] = reps[i] == -1 ? -2 : ranks[l][reps[i]];
+				}
+				signatures[l] = list.toArray(new int[0][]);
+			}
+			if (ranks[0][0] == -2)
+				Arrays.fill(signatures, new int[0][]); // the root is equivalent to nodeF
+			this.layerStarts = new int[arity + 1];
+			layerStarts[0] = 2;
+			for (int l = 0; l < arity; l++)
+				layerStarts[l + 1] = layerStarts[l] + signatures[l].length;
+			int nArcs = Stream.of(signatures).flatMap(sigs -> Stream.of(sigs)).mapToInt(t -> t.length / 2).sum();
+			this.arcStarts = new int[nNodes() + 1];
+			this.labels = new int[nArcs];
+			this.targets = new int[nArcs];
+			int e = 0;
+			for (int l = 0; l < arity; l++)
+				for (int r = 0; r < signatures[l].length; r++) {
+					int[] t = signatures[l][r];
+					for (int k = 0; k < t.length; k += 2) {
+						labels[e] = t[k];
+						targets[e++] = t[k + 1] == -1 ? 1 : layerStarts[l + 1] + t[k + 1];
+					}
+					arcStarts[layerStarts[l] + r + 1] = e;
+				}
+		}
+
+		private static IntStream stream(int nThreads, int n) {
+			return nThreads > 1 ? IntStream.range(0, n).parallel() : IntStream.range(0, n);
+		}
+
+		private static <T> T parallel(int nThreads, Supplier<T> supplier) {
+			return nThreads > 1 ? Table.pool(nThreads).submit(() -> supplier.get()).join() : supplier.get();
+		}
+
+		/**
+		 * @return the number of nodes (including the two terminal ones)
+		 */
+		public int nNodes() {
+			return layerStarts[layerStarts.length - 1];
+		}
+
+		/**
+		 * @return the number of the root, or 0 if the MDD is empty (i.e., no tuple is accepted)
+		 */
+		public int root() {
+			return nNodes() > 2 ? 2 : 0;
+		}
+
+		/**
+		 * Returns the index of the arc leaving the specified node with the specified label, or -1
+		 * 
+		 * @param u
+		 *            the number of a node
+		 * @param a
+		 *            a value index
+		 * @return the index of the arc leaving u with label a, or -1
+		 */
+		public int arc(int u, int a) {
+			int e = Arrays.binarySearch(labels, arcStarts[u], arcStarts[u + 1], a);
+			return e < 0 ? -1 : e;
+		}
+	}
+
+	/**
+	 * The flat form of the MDD, if built
+	 */
+	public Flat flat;
+
+	/**
+	 * Builds (if not already done) the flat form of the MDD, and returns it. Once the flat form is built, the MDD is
+	 * only represented under this form (nodes are no more referenced). Hence, a shared MDD must only be shared by
+	 * constraints using the flat form (see the keys built in CMDDO and CMDD4R).
+	 * 
+	 * @param nThreads
+	 *            the number of threads used for reducing the MDD
+	 * @return the flat form of the MDD
+	 */
+	public Flat flatten(int nThreads) {
+		control(!starApart);
+		if (flat == null) {
+			flat = new Flat(root, nodeF, nodeT, arity, nThreads);
+			root = null;
+		}
+		return flat;
+	}
+
 	/**********************************************************************************************
 	 * Start of experimental section (splitting - compression)
 	 *********************************************************************************************/
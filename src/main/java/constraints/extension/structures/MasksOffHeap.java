@@ -0,0 +1,146 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence). 
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS. 
+ * 
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package constraints.extension.structures;
+
+import static utility.Kit.control;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import sets.SetDense;
+import utility.Kit;
+
+/**
+ * This is the class for storing the masks (bit vectors) used by CT outside the Java heap, either in direct memory or in
+ * a temporary memory-mapped file. This is useful for very large tables, since the masks are then neither counted in
+ * the heap nor scanned by the garbage collector. The masks of a variable are stored contiguously in a same buffer, word
+ * after word, and are accessed through the same operations as those of class Bit (for masks stored in the heap).
+ * 
+ * @author Christophe Lecoutre
+ */
+public final class MasksOffHeap {
+
+	/**
+	 * buffers[x] contains the masks of the variable at position x: the jth word of the mask for (x,a) is at index
+	 * a*nWords+j
+	 */
+	private final LongBuffer[] buffers;
+
+	/**
+	 * The number of words (longs) of each mask
+	 */
+	private final int nWords;
+
+	/**
+	 * Builds an object storing off-heap masks (initially, all bits at 0)
+	 * 
+	 * @param domSizes
+	 *            the initial domain sizes of the variables in the scope of the constraint
+	 * @param nWords
+	 *            the number of words (longs) of each mask
+	 * @param mapped
+	 *            true if a temporary memory-mapped file must be used (instead of direct memory)
+	 */
+	public MasksOffHeap(int[] domSizes, int nWords, boolean mapped) {
+		this.nWords = nWords;
+		this.buffers = new LongBuffer[domSizes.length];
+		try (RandomAccessFile file = mapped ? temporaryFile() : null) {
+			long position = 0;
+			for (int x = 0; x < domSizes.length; x++) {
+				long size = domSizes[x] * (long) nWords * Long.BYTES;
+				control(size <= Integer.MAX_VALUE, () -> "masks of a variable too large for being stored in a single buffer");
+				ByteBuffer buffer = mapped ? file.getChannel().map(MapMode.READ_WRITE, position, size) : ByteBuffer.allocateDirect((int) size);
+				buffers[x] = buffer.order(ByteOrder.nativeOrder()).asLongBuffer(); // all bytes initially at 0
+				position += size;
+			}
+		} catch (IOException e) {
+			Kit.exit("Problem with the file for storing masks", e);
+		}
+	}
+
+	private static RandomAccessFile temporaryFile() throws IOException {
+		File file = File.createTempFile("ace", ".masks");
+		file.deleteOnExit();
+		return new RandomAccessFile(file, "rw");
+	}
+
+	/**
+	 * Sets to 1 the bit at the specified position in the mask for (x,a)
+	 */
+	public void setTo1(int x, int a, int bitPosition) {
+		int i = a * nWords + bitPosition / 64;
+		buffers[x].put(i, buffers[x].get(i) | (1L << (bitPosition % 64)));
+	}
+
+	/**
+	 * Returns the jth word of the mask for (x,a)
+	 */
+	public long word(int x, int a, int j) {
+		return buffers[x].get(a * nWords + j);
+	}
+
+	/**
+	 * Applies a bitwise 'or' on the specified bit vector and the mask for (x,a), with the result being stored in the
+	 * bit vector. Only indexes of words (longs) in the specified dense set are considered.
+	 */
+	public void or(long[] inout, int x, int a, SetDense set) {
+		LongBuffer buffer = buffers[x];
+		int offset = a * nWords;
+		int[] dense = set.dense;
+		for (int i = set.limit; i >= 0; i--) {
+			int j = dense[i];
+			inout[j] |= buffer.get(offset + j);
+		}
+	}
+
+	/**
+	 * Applies a bitwise 'or' on the specified bit vector and the inverse of the mask for (x,a), with the result being
+	 * stored in the bit vector. Only indexes of words (longs) in the specified dense set are considered.
+	 */
+	public void orInverse(long[] inout, int x, int a, SetDense set) {
+		LongBuffer buffer = buffers[x];
+		int offset = a * nWords;
+		int[] dense = set.dense;
+		for (int i = set.limit; i >= 0; i--) {
+			int j = dense[i];
+			inout[j] |= ~buffer.get(offset + j);
+		}
+	}
+
+	/**
+	 * Returns true if the intersection of the specified bit vector and the mask for (x,a) is 0 at the specified index
+	 */
+	public boolean nullIntersection(long[] t, int x, int a, int j) {
+		return (t[j] & buffers[x].get(a * nWords + j)) == 0L;
+	}
+
+	/**
+	 * Returns the first index where the intersection of the specified bit vector and the mask for (x,a) is not 0, or -1
+	 * if no such index exists. Only indexes of words (longs) in the specified dense set are considered.
+	 */
+	public int firstNonNullIntersectionIndex(long[] t, int x, int a, SetDense set) {
+		LongBuffer buffer = buffers[x];
+		int offset = a * nWords;
+		int[] dense = set.dense;
+		for (int i = set.limit; i >= 0; i--) {
+			int j = dense[i];
+			if ((t[j] & buffer.get(offset + j)) != 0L)
+				return j;
+		}
+		return -1;
+	}
+}
@@ -71,13 +71,13 @@ public abstract class Matrix extends ExtensionStructure {
 		}
 
 		@Override
-		public boolean removeTuple(int[] tuple) {
+		public boolean removeTuple(int[] tuple, Constraint c) {
 			assert registeredCtrs().size() == 1;
 			int a = tuple[0], b = tuple[1];
 			if (!supports[a][b])
 				return false;
 			supports[a][b] = false;
-			incrementNbTuplesRemoved();
+			incrementNbTuplesRemoved(c);
 			return true;
 		}
 
@@ -135,13 +135,13 @@ public abstract class Matrix extends ExtensionStructure {
 		}
 
 		@Override
-		public boolean removeTuple(int[] tuple) {
+		public boolean removeTuple(int[] tuple, Constraint ctr) {
 			assert registeredCtrs().size() == 1;
 			int a = tuple[0], b = tuple[1], c = tuple[2];
 			if (!supports[a][b][c])
 				return false;
 			supports[a][b][c] = false;
-			incrementNbTuplesRemoved();
+			incrementNbTuplesRemoved(ctr);
 			return true;
 		}
 	}
@@ -18,6 +18,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -231,6 +232,69 @@ public class Table extends ExtensionStructure {
 		return list.stream().toArray(int[][]::new);
 	}
 
+	/**
+	 * Returns a starred table equivalent to the specified table (of values), obtained by greedily merging tuples. For
+	 * each column j in turn, tuples that only differ on j are merged into a single tuple with * at j if they cover the
+	 * whole domain of the jth variable (or if one of them already has * at j). Columns are considered again and again
+	 * until no more merging is possible. The returned table has the same tuples as the specified one if no merging
+	 * was possible (except for possible duplicates that are removed).
+	 * 
+	 * @param m
+	 *            a table (of values), without any *
+	 * @param doms
+	 *            the domains of the variables involved in the table
+	 * @return a (possibly) starred table equivalent to the specified table
+	 */
+	public static int[][] compress(int[][] m, Domain[] doms) {
+		int[][] sorted = m.clone();
+		Arrays.sort(sorted, Utilities.lexComparatorInt);
+		List<int[]> tuples = new ArrayList<>();
+		for (int i = 0; i < sorted.length; i++)
+			if (i == 0 || !Arrays.equals(sorted[i - 1], sorted[i]))
+				tuples.add(sorted[i]);
+		for (boolean modified = true; modified;) {
+			modified = false;
+			for (int j = 0; j < doms.length; j++) {
+				int jj = j;
+				// tuples only differing on column j become contiguous (and are necessarily different on column j)
+				tuples.sort((t1, t2) -> {
+					for (int i = 0; i < t1.length; i++)
+						if (i != jj && t1[i] != t2[i])
+							return Integer.compare(t1[i], t2[i]);
+					return 0;
+				});
+				List<int[]> next = new ArrayList<>();
+				for (int first = 0, last = 0; first < tuples.size(); first = last = last + 1) {
+					int[] t = tuples.get(first);
+					boolean star = t[j] == STAR;
+					int cnt = doms[j].containsValue(t[j]) ? 1 : 0;
+					while (last + 1 < tuples.size() && equalExcept(t, tuples.get(last + 1), j)) {
+						last++;
+						star = star || tuples.get(last)[j] == STAR;
+						cnt += doms[j].containsValue(tuples.get(last)[j]) ? 1 : 0;
+					}
+					if (last > first && (star || cnt == doms[j].initSize())) {
+						int[] merged = t.clone();
+						merged[j] = STAR;
+						next.add(merged);
+						modified = true;
+					} else
+						for (int k = first; k <= last; k++)
+							next.add(tuples.get(k));
+				}
+				tuples = next;
+			}
+		}
+		return tuples.toArray(new int[0][]);
+	}
+
+	private static boolean equalExcept(int[] t1, int[] t2, int j) {
+		for (int i = 0; i < t1.length; i++)
+			if (i != j && t1[i] != t2[i])
+				return false;
+		return true;
+	}
+
 	/**********************************************************************************************
 	 * Class members
 	 *********************************************************************************************/
@@ -273,6 +337,45 @@ public class Table extends ExtensionStructure {
 	 */
 	public Table(ConstraintExtension c) {
 		super(c);
+		this.nThreads = c.problem.head.control.extension.nThreads;
+	}
+
+	/**
+	 * The number of threads used for preparing the table (taken from the options of the head that builds the table)
+	 */
+	private final int nThreads;
+
+	/**
+	 * The pools used for preparing tables and building CT masks in parallel (lazily built), one per level of
+	 * parallelism. Pools are never replaced, since heads with different options may use them concurrently.
+	 */
+	private static final Map<Integer, ForkJoinPool> pools = new HashMap<>();
+
+	/**
+	 * Returns a fork/join pool with the specified parallelism, used for preparing tables and building CT masks
+	 * 
+	 * @param nThreads
+	 *            the number of threads of the pool
+	 * @return a fork/join pool with the specified parallelism
+	 */
+	public static synchronized ForkJoinPool pool(int nThreads) {
+		return pools.computeIfAbsent(nThreads, ForkJoinPool::new);
+	}
+
+	/**
+	 * Converts the values of the jth column of the specified tuples into indexes, and returns true if a star is met
+	 */
+	private boolean convertColumn(int[][] m, Domain[] doms, int j) {
+		boolean star = false;
+		for (int i = 0; i < m.length; i++) {
+			int v = m[i][j];
+			assert m[i].length == doms.length;
+			assert v == STAR || doms[j].toIdx(v) != -1 : Kit.join(m[i]) + " j=" + j + " " + firstRegisteredCtr() + " " + doms[j];
+			if (v == STAR)
+				star = true;
+			this.tuples[i][j] = v == STAR ? STAR : doms[j].toIdx(v);
+		}
+		return star;
 	}
 
 	@Override
@@ -283,22 +386,23 @@ public class Table extends ExtensionStructure {
 		else {
 			Domain[] doms = firstRegisteredCtr().doms;
 			this.tuples = new int[m.length][doms.length];
-			for (int j = 0; j < doms.length; j++) {
-				for (int i = 0; i < m.length; i++) {
-					int v = m[i][j];
-					assert m[i].length == doms.length;
-					assert v == STAR || doms[j].toIdx(v) != -1 : Kit.join(m[i]) + " j=" + j + " " + firstRegisteredCtr() + " " + doms[j];
-					if (v == STAR)
-						this.starred = true;
-					this.tuples[i][j] = v == STAR ? STAR : doms[j].toIdx(v);
-				}
-			}
+			if (nThreads > 1) // columns are converted by independent tasks
+				this.starred = pool(nThreads).submit(() -> IntStream.range(0, doms.length).parallel().mapToObj(j -> convertColumn(m, doms, j))
+						.reduce(false, (b1, b2) -> b1 || b2)).join();
+			else
+				for (int j = 0; j < doms.length; j++)
+					this.starred |= convertColumn(m, doms, j);
 		}
 		this.positive = positive;
-		Arrays.sort(this.tuples, Utilities.lexComparatorInt);
+		if (nThreads > 1) // equal tuples being indistinguishable, the order is the same as with a sequential sort
+			pool(nThreads).submit(() -> Arrays.parallelSort(this.tuples, Utilities.lexComparatorInt)).join();
+		else
+			Arrays.sort(this.tuples, Utilities.lexComparatorInt);
 		control(!starred || positive);
 		if (subtables != null)
 			buildSubtables();
+		this.masks = this.masksS = null; // masks must be (re)built
+		this.masksOffHeap = this.masksSOffHeap = null;
 	}
 
 	@Override
@@ -306,6 +410,32 @@ public class Table extends ExtensionStructure {
 		return "Tuples :\n" + Kit.join(tuples) + " (" + positive + ")";
 	}
 
+	/**********************************************************************************************
+	 * Handling masks (only for CT)
+	 *********************************************************************************************/
+
+	/**
+	 * masks[x][a] is the mask (bit vector) of the tuples compatible with (x,a); built by the first CT constraint
+	 * registered with this table, and then shared by all of them (since they have the same domain signature)
+	 */
+	public long[][][] masks;
+
+	/**
+	 * masksS[x][a] is the mask of the tuples explicitly involving (x,a), i.e., without * at position x; only built
+	 * for starred tables
+	 */
+	public long[][][] masksS;
+
+	/**
+	 * The masks, when stored off-heap (in that case, the field masks is null)
+	 */
+	public MasksOffHeap masksOffHeap;
+
+	/**
+	 * The masks*, when stored off-heap (in that case, the field masksS is null)
+	 */
+	public MasksOffHeap masksSOffHeap;
+
 	/**********************************************************************************************
 	 * Handling subclasses (only for some algorithms like ExtensionVA (valid-allowed))
 	 *********************************************************************************************/
@@ -324,6 +324,35 @@ public final class TableHybrid extends ExtensionStructure {
 			return true;
 		}
 
+		/**
+		 * Returns true iff the specified index (of value) for the variable at the specified position is compatible with
+		 * the underlying tuple and the unary restrictions of the hybrid tuple. Note that true is always returned for a
+		 * position involved in a binary restriction (except if a constant is specified in the underlying tuple).
+		 * 
+		 * @param x
+		 *            a position in the scope of the constraint
+		 * @param a
+		 *            an index (of value)
+		 * @return true iff the specified index (of value) at the specified position is compatible with the unary part
+		 *         of the hybrid tuple
+		 */
+		public final boolean isCompatibleWith(int x, int a) {
+			if (tuple[x] != STAR && tuple[x] != a)
+				return false;
+			return whichRestrictions[x] == null || isComplexAt(x) || whichRestrictions[x].isValidFor(a);
+		}
+
+		/**
+		 * Returns true iff the variable at the specified position is involved in a binary restriction (possibly inside
+		 * a multiple restriction)
+		 */
+		public final boolean isComplexAt(int x) {
+			Restriction restriction = whichRestrictions[x];
+			if (restriction instanceof RestrictionMultiple)
+				return Stream.of(((RestrictionMultiple) restriction).subrestrictions).anyMatch(r -> r instanceof Restriction2);
+			return restriction instanceof Restriction2;
+		}
+
 		/**
 		 * Returns true iff the the smart tuple is valid, considering the specified set of positions to check.
 		 */
@@ -971,7 +1000,7 @@ public final class TableHybrid extends ExtensionStructure {
 
 			@Override
 			public boolean isValid() {
-				return strict ? domx.first() < domy.last() : domx.first() <= domy.last();
+				return strict ? domx.last() > domy.first() : domx.last() >= domy.first();
 			}
 
 			@Override
@@ -13,6 +13,7 @@ package constraints.global;
 import static java.util.stream.Collectors.joining;
 import static utility.Kit.control;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.IntStream;
@@ -32,6 +33,7 @@ import sets.SetSparse;
 import sets.SetSparseReversible;
 import utility.Kit;
 import variables.Domain;
+import variables.DomainFinite.DomainRange;
 import variables.Variable;
 
 /**
@@ -99,6 +101,208 @@ public abstract class AllDifferent extends ConstraintGlobal implements TagSymmet
 		}
 	}
 
+	/**********************************************************************************************
+	 * AllDifferentBound
+	 *********************************************************************************************/
+
+	/**
+	 * A filtering algorithm enforcing bounds consistency in O(n log n), as described in "A Fast and Simple Algorithm
+	 * for Bounds Consistency of the AllDifferent Constraint", IJCAI 2003: 245-250, by A. López-Ortiz, C.-G. Quimper,
+	 * J. Tromp and P. van Beek. Hall intervals are identified by sweeping over the sorted bounds of the domains, while
+	 * maintaining union-find structures (with path compression). This is relevant for large interval domains, for
+	 * which the complete algorithm is too expensive. The algorithm is run until a fixpoint is reached (domains may have
+	 * holes).
+	 */
+	public static final class AllDifferentBound extends AllDifferent implements TagNotAC, TagCallCompleteFiltering {
+
+		/**
+		 * @param vars
+		 *            an array of variables
+		 * @param limit
+		 *            the minimal size of the domains
+		 * @return true if the specified variables have all an interval domain whose size is at least the specified limit
+		 */
+		public static final boolean isElligible(Variable[] vars, int limit) {
+			return Stream.of(vars).allMatch(x -> x.dom instanceof DomainRange && x.dom.initSize() >= limit);
+		}
+
+		/**
+		 * mins[i] and maxs[i] are the current bounds of the domain of the ith variable (maxs[i] being exclusive)
+		 */
+		private final int[] mins, maxs;
+
+		/**
+		 * The indexes of variables sorted according to mins and maxs, respectively
+		 */
+		private final Integer[] minSorted, maxSorted;
+
+		/**
+		 * minRanks[i] and maxRanks[i] are the ranks of the bounds of the ith variable in the array bounds
+		 */
+		private final int[] minRanks, maxRanks;
+
+		/**
+		 * The distinct bounds (sorted) of the domains, with sentinels at both ends
+		 */
+		private final int[] bounds;
+
+		/**
+		 * The number of distinct bounds
+		 */
+		private int nBounds;
+
+		/**
+		 * The union-find structures: t for critical capacities, h for Hall intervals, and d for differences between
+		 * successive bounds (capacities)
+		 */
+		private final int[] t, h, d;
+
+		public AllDifferentBound(Problem pb, Variable[] scp) {
+			super(pb, scp);
+			this.mins = new int[scp.length];
+			this.maxs = new int[scp.length];
+			this.minSorted = IntStream.range(0, scp.length).boxed().toArray(Integer[]::new);
+			this.maxSorted = IntStream.range(0, scp.length).boxed().toArray(Integer[]::new);
+			this.minRanks = new int[scp.length];
+			this.maxRanks = new int[scp.length];
+			this.bounds = new int[2 * scp.length + 2];
+			this.t = new int[2 * scp.length + 2];
+			this.h = new int[2 * scp.length + 2];
+			this.d = new int[2 * scp.length + 2];
+		}
+
+		private void pathSet(int[] tree, int start, int end, int to) {
+			for (int k = start, l = start; k != end; k = l) {
+				l = tree[k];
+				tree[k] = to;
+			}
+		}
+
+		private int pathMin(int[] tree, int i) {
+			while (tree[i] < i)
+				i = tree[i];
+			return i;
+		}
+
+		private int pathMax(int[] tree, int i) {
+			while (tree[i] > i)
+				i = tree[i];
+			return i;
+		}
+
+		private void sortBounds() {
+			int n = scp.length;
+			for (int i = 0; i < n; i++) {
+				mins[i] = scp[i].dom.firstValue();
+				maxs[i] = scp[i].dom.lastValue() + 1;
+			}
+			Arrays.sort(minSorted, (i, j) -> Integer.compare(mins[i], mins[j]));
+			Arrays.sort(maxSorted, (i, j) -> Integer.compare(maxs[i], maxs[j]));
+			int min = mins[minSorted[0]], max = maxs[maxSorted[0]], last = min - 2;
+			nBounds = 0;
+			bounds[0] = last;
+			for (int i = 0, j = 0;;) {
+				if (i < n && min <= max) {
+					if (min != last)
+						bounds[++nBounds] = last = min;
+					minRanks[minSorted[i]] = nBounds;
+					if (++i < n)
+						min = mins[minSorted[i]];
+				} else {
+					if (max != last)
+						bounds[++nBounds] = last = max;
+					maxRanks[maxSorted[j]] = nBounds;
+					if (++j == n)
+						break;
+					max = maxs[maxSorted[j]];
+				}
+			}
+			bounds[nBounds + 1] = bounds[nBounds] + 2;
+		}
+
+		/**
+		 * Updates the lower bounds (in mins). Returns false if an inconsistency is detected.
+		 */
+		private boolean updateLowerBounds() {
+			for (int i = 1; i <= nBounds + 1; i++) {
+				t[i] = h[i] = i - 1;
+				d[i] = bounds[i] - bounds[i - 1];
+			}
+			for (int i = 0; i < scp.length; i++) {
+				int k = maxSorted[i], x = minRanks[k], y = maxRanks[k];
+				int z = pathMax(t, x + 1), j = t[z];
+				if (--d[z] == 0) {
+					t[z] = z + 1;
+					z = pathMax(t, t[z]);
+					t[z] = j;
+				}
+				pathSet(t, x + 1, z, z);
+				if (d[z] < bounds[z] - bounds[y])
+					return false;
+				if (h[x] > x) {
+					int w = pathMax(h, h[x]);
+					mins[k] = bounds[w];
+					pathSet(h, x, w, w);
+				}
+				if (d[z] == bounds[z] - bounds[y]) {
+					pathSet(h, h[y], j - 1, y); // a Hall interval [bounds[j],bounds[y]) has been found
+					h[y] = j - 1;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Updates the upper bounds (in maxs). Returns false if an inconsistency is detected.
+		 */
+		private boolean updateUpperBounds() {
+			for (int i = 0; i <= nBounds; i++) {
+				t[i] = h[i] = i + 1;
+				d[i] = bounds[i + 1] - bounds[i];
+			}
+			for (int i = scp.length - 1; i >= 0; i--) {
+				int k = minSorted[i], x = maxRanks[k], y = minRanks[k];
+				int z = pathMin(t, x - 1), j = t[z];
+				if (--d[z] == 0) {
+					t[z] = z - 1;
+					z = pathMin(t, t[z]);
+					t[z] = j;
+				}
+				pathSet(t, x - 1, z, z);
+				if (d[z] < bounds[y] - bounds[z])
+					return false;
+				if (h[x] < x) {
+					int w = pathMin(h, h[x]);
+					maxs[k] = bounds[w];
+					pathSet(h, x, w, w);
+				}
+				if (d[z] == bounds[y] - bounds[z]) {
+					pathSet(h, h[y], j + 1, y); // a Hall interval [bounds[y],bounds[j]) has been found
+					h[y] = j + 1;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean runPropagator(Variable x) {
+			for (boolean modified = true; modified;) {
+				sortBounds();
+				if (!updateLowerBounds() || !updateUpperBounds())
+					return x.dom.fail();
+				modified = false;
+				for (int i = 0; i < scp.length; i++) {
+					Domain dom = scp[i].dom;
+					int sizeBefore = dom.size();
+					if (dom.removeValuesLT(mins[i]) == false || dom.removeValuesGT(maxs[i] - 1) == false)
+						return false;
+					modified = modified || dom.size() != sizeBefore; // because of holes, bounds may move further than computed
+				}
+			}
+			return true;
+		}
+	}
+
 	/**********************************************************************************************
 	 * AllDifferentPermutation
 	 *********************************************************************************************/
@@ -22,7 +22,6 @@ import interfaces.Observers.ObserverOnBacktracks.ObserverOnBacktracksSystematic;
 import interfaces.Tags.TagCallCompleteFiltering;
 import interfaces.Tags.TagNotAC;
 import problem.Problem;
-import sets.SetSparse;
 import sets.SetSparseReversible;
 import utility.Kit;
 import variables.Domain;
@@ -58,19 +57,22 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 	}
 
 	/**********************************************************************************************
-	 * Two inner classes for reasoning
+	 * Three inner classes for reasoning
 	 *********************************************************************************************/
 
 	/**
 	 * Filtering mainly based on "Simple and Scalable Time-Table Filtering for the Cumulative Constraint", CP 2015:
-	 * 149-157, by S. Gay, R. Hartert and P. Schaus.
+	 * 149-157, by S. Gay, R. Hartert and P. Schaus. The time-table (profile of compulsory parts) is built by sweeping
+	 * over the sorted start and end events of compulsory parts, as in "A Scalable Sweep Algorithm for the cumulative
+	 * Constraint", CP 2012: 439-454, by A. Letort, N. Beldiceanu and M. Carlsson, so that the cost is in O(n log n),
+	 * whatever is the horizon.
 	 */
 	class TimetableReasoner {
 		class Slot {
-			int start, end, height;
+			int start, end, height; // the slot corresponds to the time interval [start,end)
 
 			int width() {
-				return end - start + 1;
+				return end - start;
 			}
 
 			@Override
@@ -84,14 +86,15 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 		private Slot[] slots;
 		private int nSlots;
 
-		private SetSparse ticks; // intermediary structure used when building slots
-		private int[] offsets; // intermediary structure used when building slots
+		/**
+		 * Intermediary structure used when building slots: each event combines a time (high bits) and either the index
+		 * of a task (for the start of its compulsory part) or the index of a task shifted by nTasks (for the end)
+		 */
+		private long[] events;
 
 		private TimetableReasoner() {
-			int timeline = IntStream.range(0, nTasks).map(i -> starts[i].dom.lastValue() + maxWidth(i)).max().getAsInt() + 1;
-			this.slots = IntStream.range(0, timeline).mapToObj(i -> new Slot()).toArray(Slot[]::new);
-			this.ticks = new SetSparse(timeline);
-			this.offsets = new int[timeline];
+			this.slots = IntStream.range(0, 2 * nTasks).mapToObj(i -> new Slot()).toArray(Slot[]::new);
+			this.events = new long[2 * nTasks];
 		}
 
 		private int mandatoryStart(int i) {
@@ -104,34 +107,34 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 
 		private Boolean buildSlots() { // so, building the timetable
 			nSlots = 0;
-			ticks.clear();
+			int nEvents = 0;
 			for (int i = 0; i < nTasks; i++) {
 				// for (int j = relevantTasks.limit; j >= 0; j--) { // ok for Cst but for VarH does not seem correct
 				// int i = relevantTasks.dense[j];
 				int ms = mandatoryStart(i), me = mandatoryEnd(i);
-				if (me <= ms)
+				if (me <= ms || wheights[i] == 0)
 					continue; // no mandatory part here
-				if (ticks.contains(ms) == false) {
-					ticks.add(ms);
-					offsets[ms] = 0;
+				events[nEvents++] = ((long) ms << 32) | i;
+				events[nEvents++] = ((long) me << 32) | (nTasks + i);
+			}
+			Arrays.sort(events, 0, nEvents);
+			int nRelevantTicks = 0;
+			for (int k = 0; k < nEvents;) {
+				int time = (int) (events[k] >> 32), offset = 0;
+				for (; k < nEvents && (int) (events[k] >> 32) == time; k++) {
+					int i = (int) events[k];
+					offset += i < nTasks ? wheights[i] : -wheights[i - nTasks];
 				}
-				offsets[ms] += wheights[i];
-				if (ticks.contains(me) == false) {
-					ticks.add(me);
-					offsets[me] = 0;
+				if (offset != 0) { // ticks with offset at 0 are not relevant (and so, are discarded)
+					slots[nRelevantTicks].start = time;
+					slots[nRelevantTicks++].height = offset; // temporarily, the offset
 				}
-				offsets[me] -= wheights[i];
 			}
-			int nRelevantTicks = 0;
-			for (int j = 0; j <= ticks.limit; j++)
-				if (offsets[ticks.dense[j]] != 0) // ticks with offset at 0 are not relevant (and so, are discarded)
-					slots[nRelevantTicks++].start = ticks.dense[j];
 			if (nRelevantTicks == 0)
 				return Boolean.TRUE;
 
-			Arrays.sort(slots, 0, nRelevantTicks, (t1, t2) -> t1.start < t2.start ? -1 : t1.start > t2.start ? 1 : 0);
 			for (int k = 0, height = 0; k < nRelevantTicks - 1; k++) {
-				height += offsets[slots[k].start];
+				height += slots[k].height;
 				if (height > limit)
 					return Boolean.FALSE;
 				slots[k].end = slots[k + 1].start;
@@ -277,6 +280,124 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 		}
 	}
 
+	/**
+	 * Filtering based on time-table edge-finding, following "Timetable Edge Finding Filtering Algorithm for Discrete
+	 * Cumulative Resources", CPAIOR 2011: 230-245, by P. Vilím, and "Explaining Time-Table-Edge-Finding Propagation for
+	 * the Cumulative Resource Constraint", CPAIOR 2013: 234-250, by A. Schutt, T. Feydy and P. J. Stuckey. For each
+	 * window [a,b) with a the earliest start of a task and b the latest end of a task, the energy of the tasks fully
+	 * contained in the window (free parts only), plus the energy of the compulsory parts (time-table) in the window,
+	 * must not exceed the available energy. Besides, a task that starts in the window but may end after it is pushed
+	 * (so that it ends after b) if its energy in the window, when started as soon as possible, exceeds what remains.
+	 * The same reasoning is applied with time reversed to reduce latest starts. This is the O(n^2) form, where only the
+	 * task with the largest energy in a window is checked.
+	 */
+	class TimetableEdgeFinder {
+		private int[] est, lct, lst, ect; // earliest start, latest end, and compulsory part [lst,ect) of each task
+		private long[] freeEnergies; // energy of the free part of each task
+		private long[] ttEst, ttLct; // time-table energy (of compulsory parts) before the earliest start and the latest end of each task
+		private int[] bounds; // new earliest starts
+		private Integer[] estOrder, lctOrder;
+
+		private TimetableEdgeFinder() {
+			this.est = new int[nTasks];
+			this.lct = new int[nTasks];
+			this.lst = new int[nTasks];
+			this.ect = new int[nTasks];
+			this.freeEnergies = new long[nTasks];
+			this.ttEst = new long[nTasks];
+			this.ttLct = new long[nTasks];
+			this.bounds = new int[nTasks];
+			this.estOrder = IntStream.range(0, nTasks).boxed().toArray(Integer[]::new);
+			this.lctOrder = IntStream.range(0, nTasks).boxed().toArray(Integer[]::new);
+		}
+
+		/**
+		 * Loads the tasks, with time reversed if mirror is true (so that the latest end of a task becomes the opposite
+		 * of its earliest start)
+		 */
+		private void load(boolean mirror) {
+			for (int i = 0; i < nTasks; i++) {
+				int first = starts[i].dom.firstValue(), last = starts[i].dom.lastValue();
+				est[i] = mirror ? -(last + maxWidth(i)) : first;
+				lct[i] = mirror ? -first : last + maxWidth(i);
+				lst[i] = mirror ? -(first + wwidths[i]) : last;
+				ect[i] = mirror ? -last : first + wwidths[i];
+				freeEnergies[i] = (long) wheights[i] * (wwidths[i] - Math.max(0, ect[i] - lst[i]));
+				bounds[i] = est[i];
+			}
+			for (int i = 0; i < nTasks; i++) {
+				ttEst[i] = timetableEnergyBefore(est[i]);
+				ttLct[i] = timetableEnergyBefore(lct[i]);
+			}
+			Arrays.sort(estOrder, (i1, i2) -> Integer.compare(est[i1], est[i2]));
+			Arrays.sort(lctOrder, (i1, i2) -> Integer.compare(lct[i1], lct[i2]));
+		}
+
+		private long timetableEnergyBefore(int t) {
+			long sum = 0;
+			for (int i = 0; i < nTasks; i++)
+				if (lst[i] < ect[i] && lst[i] < t)
+					sum += (long) wheights[i] * (Math.min(t, ect[i]) - lst[i]);
+			return sum;
+		}
+
+		private long coreEnergyBefore(int i, int b) {
+			return lst[i] < ect[i] && lst[i] < b ? (long) wheights[i] * (Math.min(b, ect[i]) - lst[i]) : 0;
+		}
+
+		/**
+		 * Computes new earliest starts in bounds, and returns false if an inconsistency is detected
+		 */
+		private boolean sweep() {
+			for (int ii = nTasks - 1; ii >= 0; ii--) {
+				int i = lctOrder[ii], b = lct[i];
+				if (ii < nTasks - 1 && lct[lctOrder[ii + 1]] == b)
+					continue; // the same window end has already been considered
+				long freeEnergy = 0, maxExtra = 0;
+				int u = -1;
+				for (int jj = nTasks - 1; jj >= 0; jj--) {
+					int j = estOrder[jj], a = est[j];
+					if (a >= b)
+						continue;
+					if (lct[j] <= b)
+						freeEnergy += freeEnergies[j];
+					else if (wheights[j] > 0 && wwidths[j] > 0) {
+						// energy of j in [a,b) when starting at est[j], minus what is already counted in the time-table
+						long extra = (long) wheights[j] * Math.min(wwidths[j], b - est[j]) - coreEnergyBefore(j, b);
+						if (extra > maxExtra) {
+							maxExtra = extra;
+							u = j;
+						}
+					}
+					long available = (long) limit * (b - a) - freeEnergy - (ttLct[i] - ttEst[j]);
+					if (available < 0)
+						return false;
+					if (u != -1 && maxExtra > available) {
+						long rest = available + coreEnergyBefore(u, b);
+						bounds[u] = Math.max(bounds[u], b - (int) (rest / wheights[u]));
+					}
+				}
+			}
+			return true;
+		}
+
+		private boolean filter() {
+			load(false);
+			if (!sweep())
+				return false;
+			for (int i = 0; i < nTasks; i++)
+				if (bounds[i] > est[i] && starts[i].dom.removeValuesLT(bounds[i]) == false)
+					return false;
+			load(true);
+			if (!sweep())
+				return false;
+			for (int i = 0; i < nTasks; i++)
+				if (bounds[i] > est[i] && starts[i].dom.removeValuesGT(-bounds[i] - wwidths[i]) == false)
+					return false;
+			return true;
+		}
+	}
+
 	/**********************************************************************************************
 	 * Class members
 	 *********************************************************************************************/
@@ -353,6 +474,11 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 	 */
 	protected EnergeticReasoner energeticReasoner;
 
+	/**
+	 * The object that allows us to reason with time-table edge-finding (null if not used)
+	 */
+	protected TimetableEdgeFinder timetableEdgeFinder;
+
 	/**
 	 * The current margin (in term of volume) that we globally have
 	 */
@@ -414,6 +540,7 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 		this.limit = limit;
 		this.timetableReasoner = new TimetableReasoner();
 		this.energeticReasoner = new EnergeticReasoner();
+		this.timetableEdgeFinder = pb.head.control.global.timetableEdgeFinding ? new TimetableEdgeFinder() : null;
 	}
 
 	@Override
@@ -429,7 +556,7 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 		if (b == Boolean.FALSE)
 			return false; // seems better than x.dom.fail()
 		if (b == Boolean.TRUE)
-			return true;
+			return timetableEdgeFinder == null || timetableEdgeFinder.filter(); // no compulsory part, but still some possible reasoning
 
 		b = energeticReasoner.filter();
 		if (b == Boolean.FALSE)
@@ -437,7 +564,9 @@ public abstract class Cumulative extends ConstraintGlobal implements TagNotAC, T
 		if (b == Boolean.TRUE)
 			return true;
 
-		return timetableReasoner.filter();
+		if (timetableReasoner.filter() == false)
+			return false;
+		return timetableEdgeFinder == null || timetableEdgeFinder.filter();
 	}
 
 	@Override
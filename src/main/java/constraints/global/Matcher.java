@@ -13,6 +13,7 @@ package constraints.global;
 import static java.util.stream.Collectors.joining;
 import static utility.Kit.control;
 
+import java.util.Arrays;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -31,16 +32,9 @@ import variables.Variable;
  * 
  * @author Vincent Perradin
  */
-public abstract class Matcher implements ObserverOnConstruction {
+public abstract class Matcher {
 
-	@Override
-	public void afterProblemConstruction(int n) {
-		this.unfixedVars = new SetSparseReversible(arity, n + 1);
-	}
-
-	public void restoreAtDepthBefore(int depth) {
-		unfixedVars.restoreLimitAtLevel(depth);
-	}
+	public abstract void restoreAtDepthBefore(int depth);
 
 	/**
 	 * The problem to which this object is (indirectly) attached
@@ -64,7 +58,7 @@ public abstract class Matcher implements ObserverOnConstruction {
 	protected int time;
 
 	/**
-	 * variables that have no singleton domains
+	 * variables that have no singleton domains (only maintained by MatcherCardinality)
 	 */
 	protected SetSparseReversible unfixedVars;
 
@@ -91,7 +85,7 @@ public abstract class Matcher implements ObserverOnConstruction {
 	/**
 	 * numDFS[n] is the number (order) of node n when reached/discovered during DFS
 	 */
-	private final int[] numDFS;
+	protected final int[] numDFS;
 
 	/**
 	 * lowLink[n] is the minimum number of all nodes reachable from node n by following edges used by the current DFS
@@ -101,7 +95,7 @@ public abstract class Matcher implements ObserverOnConstruction {
 	/**
 	 * stack used to compute strongly connected components in the current DFS
 	 */
-	private final SetSparse stackTarjan;
+	protected final SetSparse stackTarjan;
 
 	/**
 	 * neighborsOfValues[u] contains all neighbors (nodes) of node u. We have possibly arity + 1 (for node T) such
@@ -159,7 +153,6 @@ public abstract class Matcher implements ObserverOnConstruction {
 		this.numDFS = new int[nNodes];
 		this.lowLink = new int[nNodes];
 
-		c.problem.head.observersConstruction.add(this);
 
 		// TODO use classical sets (not sparse sets or arrays) if big gap between
 		// minValue and maxValue AND number of values is a lot smaller than maxValue-minValue
@@ -256,7 +249,7 @@ public abstract class Matcher implements ObserverOnConstruction {
 	 * Finds the strongly connected components of the flow graph as defined in Ian P. Gent, Ian Miguel, and Peter
 	 * Nightingale, The AllDifferent Constraint: An Empirical Survey, and prunes the domains to reach (G)AC
 	 */
-	public final void removeInconsistentValues() {
+	public void removeInconsistentValues() {
 		time++;
 		computeNeighbors();
 		stackTarjan.clear();
@@ -301,20 +294,121 @@ public abstract class Matcher implements ObserverOnConstruction {
 	 *********************************************************************************************/
 
 	/**
-	 * Class used to perform AC filtering for AllDifferent
+	 * Class used to perform AC filtering for AllDifferent. Filtering is incremental, as in Ian P. Gent, Ian Miguel, and
+	 * Peter Nightingale, Generalised arc consistency for the AllDifferent constraint: An empirical survey, AIJ 2008. A
+	 * (reversible) partition of the variables into cells is maintained, each cell gathering the variables of a strongly
+	 * connected component found at the last call. Since domains can only be reduced, components can only be split, and
+	 * so, at each call, the matching is only repaired for the variables whose matched values have been removed, and
+	 * components are only computed again in the cells where at least one domain has been reduced.
 	 */
 	public static class MatcherAllDifferent extends Matcher {
 
+		@Override
+		public void restoreAtDepthBefore(int depth) {
+			while (trailTop > 0 && trailDepths[trailTop - 1] >= depth) {
+				trailTop--;
+				int x = trailVars[trailTop];
+				if (x == arity)
+					cellOfT = trailCells[trailTop];
+				else {
+					cellOf[x] = trailCells[trailTop];
+					sizes[x] = trailSizes[trailTop];
+				}
+				trailedAt[x] = trailPrevs[trailTop];
+			}
+		}
+
 		/**
 		 * The variable each value is assigned to in the current matching
 		 */
 		private final int[] valToVar;
 
+		/**
+		 * cellOf[x] is the cell (identified by one of its variables) of the partition to which x belongs
+		 */
+		private final int[] cellOf;
+
+		/**
+		 * The cell to which node T belongs, or -1 if T is alone in its strongly connected component
+		 */
+		private int cellOfT;
+
+		/**
+		 * sizes[x] is the size of the domain of x when its cell was last handled (-1 initially)
+		 */
+		private final int[] sizes;
+
+		/**
+		 * The cells that must be handled during the current call
+		 */
+		private final SetSparse dirtyCells;
+
+		/**
+		 * The variables and the (normalized) values belonging to the cells that must be handled
+		 */
+		private final SetSparse dirtyVars, dirtyVals;
+
+		/**
+		 * sccOf[n] is the root node of the strongly connected component to which node n belongs
+		 */
+		private final int[] sccOf;
+
+		/**
+		 * repOf[n] is the variable chosen to represent the component whose root is n (when stamped at the current time)
+		 */
+		private final int[] repOf, repTime;
+
+		/**
+		 * The trail used to restore cellOf, sizes and cellOfT (an entry for variable arity concerns T)
+		 */
+		private int[] trailVars, trailCells, trailSizes, trailDepths, trailPrevs;
+
+		private int trailTop;
+
+		/**
+		 * trailedAt[x] is the last depth at which x has been recorded in the trail (arity for T)
+		 */
+		private final int[] trailedAt;
+
 		public MatcherAllDifferent(AllDifferentComplete c) {
 			super(c);
 			this.queueBFS = new SetSparse(arity);
 			this.predBFS = Kit.repeat(-1, arity);
 			this.valToVar = Kit.repeat(-1, intervalSize);
+			this.cellOf = new int[arity]; // initially, a single cell (identified by variable 0) containing T
+			this.sizes = Kit.repeat(-1, arity);
+			this.dirtyCells = new SetSparse(arity);
+			this.dirtyVars = new SetSparse(arity);
+			this.dirtyVals = new SetSparse(intervalSize);
+			this.sccOf = new int[visitTime.length];
+			this.repOf = new int[visitTime.length];
+			this.repTime = Kit.repeat(-1, visitTime.length);
+			this.trailVars = new int[arity + 1];
+			this.trailCells = new int[arity + 1];
+			this.trailSizes = new int[arity + 1];
+			this.trailDepths = new int[arity + 1];
+			this.trailPrevs = new int[arity + 1];
+			this.trailedAt = Kit.repeat(-1, arity + 1);
+		}
+
+		private void trail(int x, int depth) {
+			if (trailedAt[x] == depth)
+				return;
+			if (trailTop == trailVars.length) {
+				int capacity = trailVars.length * 2;
+				trailVars = Arrays.copyOf(trailVars, capacity);
+				trailCells = Arrays.copyOf(trailCells, capacity);
+				trailSizes = Arrays.copyOf(trailSizes, capacity);
+				trailDepths = Arrays.copyOf(trailDepths, capacity);
+				trailPrevs = Arrays.copyOf(trailPrevs, capacity);
+			}
+			trailVars[trailTop] = x;
+			trailCells[trailTop] = x == arity ? cellOfT : cellOf[x];
+			trailSizes[trailTop] = x == arity ? -1 : sizes[x];
+			trailDepths[trailTop] = depth;
+			trailPrevs[trailTop] = trailedAt[x];
+			trailTop++;
+			trailedAt[x] = depth;
 		}
 
 		/**
@@ -358,61 +452,191 @@ public abstract class Matcher implements ObserverOnConstruction {
 		}
 
 		/**
-		 * Finds a matching for all the unmatched variables while keeping the matched variables (may change the matched
-		 * values though).
+		 * Repairs the matching for all the variables whose matched values have been removed, while keeping the other
+		 * matched variables (may change the matched values though). The cells containing a variable whose domain has
+		 * been reduced are collected. Augmenting paths cannot leave these cells.
 		 * 
 		 * @return true if a matching has been found, false otherwise (constraint unsatisfiable)
 		 */
 		@Override
 		public boolean findMaximumMatching() {
+			dirtyCells.clear();
 			unmatchedVars.clear();
 			for (int x = 0; x < arity; x++) {
+				Domain dom = scp[x].dom;
 				int u = varToVal[x];
+				if (u != -1 && dom.size() == sizes[x])
+					continue;
+				dirtyCells.add(cellOf[x]);
 				if (u == -1)
 					unmatchedVars.add(x);
 				else {
 					assert valToVar[u] == x;
-					if (!scp[x].dom.containsValue(domainValueOf(u))) {
+					if (!dom.containsValue(domainValueOf(u))) {
 						varToVal[x] = valToVar[u] = -1;
 						unmatchedVars.add(x);
 					}
-					if (scp[x].dom.size() == 1 && unfixedVars.contains(x))
-						unfixedVars.remove(x, problem.solver.depth());
 				}
 			}
 			while (!unmatchedVars.isEmpty())
 				if (!findMatchingFor(unmatchedVars.pop()))
 					return false;
-			// for (int x = 0; x < arity; x++)
-			// System.out.println(x + "<->" + varToVal[x] + " " + valToVar[varToVal[x]]);
 			return true;
 		}
 
 		/**
-		 * Computes the neighbors of each value vertex and those of vertex T in the flow graph
+		 * Computes the neighbors of the values belonging to the cells that must be handled
 		 */
 		@Override
 		protected void computeNeighbors() {
-			for (SetSparse set : neighborsOfValues)
-				set.clear();
-			// control(neighborsOfT.isEmpty()); // not empty for a test case with queens. Should we clear?
+			dirtyVars.clear();
+			dirtyVals.clear();
 			for (int x = 0; x < arity; x++) {
+				if (!dirtyCells.contains(cellOf[x]))
+					continue;
+				dirtyVars.add(x);
 				Domain dom = scp[x].dom;
 				for (int a = dom.first(); a != -1; a = dom.next(a)) {
 					int u = normalizedValueOf(dom.toVal(a));
-					if (valToVar[u] == x)
-						neighborsOfValues[u].add(arity);
-					else if (valToVar[u] != -1)
-						neighborsOfT.remove(u);
-					else {
-						neighborsOfValues[u].remove(arity);
-						neighborsOfT.add(u);
+					if (!dirtyVals.contains(u)) {
+						dirtyVals.add(u);
+						neighborsOfValues[u].clear();
 					}
 					neighborsOfValues[u].add(x);
 				}
 			}
 		}
 
+		/**
+		 * Computes Tarjan algorithm over the nodes of the cells that must be handled (node T being considered only if its
+		 * cell must be handled). Nodes are numbered as in the super class.
+		 */
+		private void tarjan(int node, boolean withT) {
+			visitTime[node] = time;
+			numDFS[node] = lowLink[node] = ++nVisitedNodes;
+			stackTarjan.add(node);
+			if (node < arity)
+				tarjanUpdate(arity + varToVal[node], node, withT);
+			else if (node < arity + intervalSize) {
+				SetSparse neighbors = neighborsOfValues[node - arity];
+				for (int i = 0; i <= neighbors.limit; i++)
+					tarjanUpdate(neighbors.dense[i], node, withT);
+				if (withT && valToVar[node - arity] != -1)
+					tarjanUpdate(arity + intervalSize, node, withT);
+			} else {
+				for (int i = 0; i <= dirtyVals.limit; i++)
+					if (valToVar[dirtyVals.dense[i]] == -1)
+						tarjanUpdate(arity + dirtyVals.dense[i], node, withT);
+			}
+			if (lowLink[node] == numDFS[node]) {
+				int nodeSCC = -1;
+				while (nodeSCC != node) {
+					nodeSCC = stackTarjan.pop();
+					sccOf[nodeSCC] = node;
+				}
+			}
+		}
+
+		private void tarjanUpdate(int adjacentNode, int node, boolean withT) {
+			if (visitTime[adjacentNode] == time) {
+				if (stackTarjan.contains(adjacentNode) && numDFS[adjacentNode] < lowLink[node])
+					lowLink[node] = numDFS[adjacentNode];
+			} else {
+				tarjan(adjacentNode, withT);
+				if (lowLink[adjacentNode] < lowLink[node])
+					lowLink[node] = lowLink[adjacentNode];
+			}
+		}
+
+		@Override
+		public void removeInconsistentValues() {
+			if (dirtyCells.isEmpty()) {
+				assert isGAC() : "not GAC " + this;
+				return;
+			}
+			computeNeighbors();
+			boolean withT = cellOfT != -1 && dirtyCells.contains(cellOfT);
+			int nodeT = arity + intervalSize;
+			time++;
+			stackTarjan.clear();
+			nVisitedNodes = 0;
+			for (int i = 0; i <= dirtyVars.limit; i++)
+				if (visitTime[dirtyVars.dense[i]] < time)
+					tarjan(dirtyVars.dense[i], withT);
+			for (int i = 0; i <= dirtyVals.limit; i++)
+				if (visitTime[arity + dirtyVals.dense[i]] < time)
+					tarjan(arity + dirtyVals.dense[i], withT);
+			if (withT && visitTime[nodeT] < time)
+				tarjan(nodeT, withT);
+			// removing the values linking different components, and splitting cells
+			int depth = problem.solver.depth();
+			for (int i = 0; i <= dirtyVars.limit; i++) {
+				int x = dirtyVars.dense[i];
+				Domain dom = scp[x].dom;
+				for (int a = dom.first(); a != -1; a = dom.next(a)) {
+					int u = normalizedValueOf(dom.toVal(a));
+					if (u != varToVal[x] && sccOf[arity + u] != sccOf[x])
+						dom.remove(a); // no possible inconsistency since the matched value remains
+				}
+				int root = sccOf[x];
+				if (repTime[root] != time) {
+					repTime[root] = time;
+					repOf[root] = x;
+				}
+				trail(x, depth);
+				cellOf[x] = repOf[root];
+				sizes[x] = dom.size();
+			}
+			if (withT) {
+				trail(arity, depth);
+				int root = sccOf[nodeT];
+				cellOfT = repTime[root] == time ? repOf[root] : -1;
+			}
+			assert isGAC() : "not GAC " + this;
+		}
+
+		/**
+		 * Returns true if every value in the current domains has a support, i.e., belongs to a matching covering all
+		 * variables. This is checked from scratch (augmenting paths for each value), and so, must only be used in
+		 * assertions.
+		 */
+		private boolean isGAC() {
+			int[] owners = new int[intervalSize];
+			boolean[] seen = new boolean[intervalSize];
+			for (int x = 0; x < arity; x++) {
+				Domain dom = scp[x].dom;
+				for (int a = dom.first(); a != -1; a = dom.next(a)) {
+					Arrays.fill(owners, -1);
+					owners[normalizedValueOf(dom.toVal(a))] = x;
+					for (int y = 0; y < arity; y++) {
+						Arrays.fill(seen, false);
+						if (y != x && !augment(y, x, owners, seen))
+							return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Looks for an augmenting path from the variable y (the variable x being fixed), owners[u] giving the variable
+		 * matched to the (normalized) value u, or -1
+		 */
+		private boolean augment(int y, int x, int[] owners, boolean[] seen) {
+			Domain dom = scp[y].dom;
+			for (int a = dom.first(); a != -1; a = dom.next(a)) {
+				int u = normalizedValueOf(dom.toVal(a));
+				if (seen[u])
+					continue;
+				seen[u] = true;
+				if (owners[u] == -1 || (owners[u] != x && augment(owners[u], x, owners, seen))) {
+					owners[u] = y;
+					return true;
+				}
+			}
+			return false;
+		}
+
 		@Override
 		public String toString() {
 			return "varToVal: " + Kit.join(varToVal) + "\nvalToVar: " + Kit.join(valToVar);
@@ -426,7 +650,17 @@ public abstract class Matcher implements ObserverOnConstruction {
 	/**
 	 * Class used to perform AC filtering for Cardinality
 	 */
-	public static class MatcherCardinality extends Matcher {
+	public static class MatcherCardinality extends Matcher implements ObserverOnConstruction {
+
+		@Override
+		public void afterProblemConstruction(int n) {
+			this.unfixedVars = new SetSparseReversible(arity, n + 1);
+		}
+
+		@Override
+		public void restoreAtDepthBefore(int depth) {
+			unfixedVars.restoreLimitAtLevel(depth);
+		}
 
 		/**
 		 * Variables the values are matched to. In a GCC, a value can be matched to several variables.
@@ -500,6 +734,7 @@ public abstract class Matcher implements ObserverOnConstruction {
 			}
 
 			this.valToVars = IntStream.range(0, intervalSize).mapToObj(i -> new SetSparse(arity, false)).toArray(SetSparse[]::new);
+			c.problem.head.observersConstruction.add(this);
 		}
 
 		private void handleAugmentingPath(int x, int u) { // , int currDepth) {
@@ -0,0 +1,427 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence). 
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS. 
+ * 
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package constraints.global;
+
+import static utility.Kit.control;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.xcsp.common.Utilities;
+
+import constraints.ConstraintGlobal;
+import interfaces.Tags.TagCallCompleteFiltering;
+import interfaces.Tags.TagNotAC;
+import problem.Problem;
+import variables.Variable;
+
+/**
+ * The constraint NoOverlap1D (also called Disjunctive or Unary Resource) ensures that tasks, given by their starting
+ * times and lengths, do not overlap on a timeline. Filtering is based on the Θ-Λ-trees of P. Vilím, as described in
+ * "O(n log n) Filtering Algorithms for Unary Resource Constraint", CPAIOR 2004: 335-347, and in "Filtering Algorithms
+ * for the Unary Resource Constraint", Archives of Control Sciences 18(2), 2008, by P. Vilím. Overload checking,
+ * detectable precedences, not-first/not-last and edge-finding are performed (each rule being run in both directions
+ * of time), until a fixpoint is reached. When lengths are variable, minimal lengths are used for reasoning, and a
+ * task whose length can still be 0 is considered as optional (absent if its length is 0, as with zeroIgnored in
+ * XCSP3): it is simply discarded until its minimal length becomes positive.
+ * 
+ * @author Christophe Lecoutre
+ */
+public abstract class NoOverlap1D extends ConstraintGlobal implements TagNotAC, TagCallCompleteFiltering {
+
+	@Override
+	public boolean isSatisfiedBy(int[] tuple) {
+		for (int i = 0; i < nTasks; i++)
+			for (int j = i + 1; j < nTasks; j++) {
+				int si = tuple[i], sj = tuple[j], li = length(tuple, i), lj = length(tuple, j);
+				if (li > 0 && lj > 0 && si + li > sj && sj + lj > si)
+					return false;
+			}
+		return true;
+	}
+
+	/**
+	 * Returns the length of the ith task in the specified tuple
+	 */
+	protected abstract int length(int[] tuple, int i);
+
+	/**
+	 * Returns the minimal possible length of the ith task
+	 */
+	protected abstract int minLength(int i);
+
+	/**
+	 * Returns the maximal possible length of the ith task
+	 */
+	protected abstract int maxLength(int i);
+
+	/**
+	 * Reduces (if possible) the length of the ith task so that it ends at the latest at the specified time. Returns
+	 * false if an inconsistency is detected.
+	 */
+	protected boolean reduceMaxLength(int i, int maxEnd) {
+		return true;
+	}
+
+	/**********************************************************************************************
+	 * Inner class for Θ-Λ-trees
+	 *********************************************************************************************/
+
+	/**
+	 * A Θ-Λ-tree is a balanced binary tree whose leaves are the tasks sorted by earliest starting times. Tasks can be
+	 * white (in Θ), gray (in Λ) or absent. Each node stores the total processing time and the earliest completion time
+	 * of the tasks in its subtree, with and without (at most) one gray task, as well as the gray tasks responsible for
+	 * these values.
+	 */
+	static final class ThetaLambdaTree {
+		private static final int NONE = Integer.MIN_VALUE / 2;
+
+		private final int size; // number of leaves (a power of 2)
+
+		private final int[] sumP, ect, sumPBar, ectBar, respP, respEct;
+
+		private ThetaLambdaTree(int n) {
+			this.size = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+			this.sumP = new int[2 * size];
+			this.ect = new int[2 * size];
+			this.sumPBar = new int[2 * size];
+			this.ectBar = new int[2 * size];
+			this.respP = new int[2 * size];
+			this.respEct = new int[2 * size];
+		}
+
+		private void clear() {
+			Arrays.fill(sumP, 0);
+			Arrays.fill(ect, NONE);
+			Arrays.fill(sumPBar, 0);
+			Arrays.fill(ectBar, NONE);
+			Arrays.fill(respP, -1);
+			Arrays.fill(respEct, -1);
+		}
+
+		private void set(int leaf, int p, int ct, int pBar, int ctBar, int resp) {
+			int v = size + leaf;
+			sumP[v] = p;
+			ect[v] = ct;
+			sumPBar[v] = pBar;
+			ectBar[v] = ctBar;
+			respP[v] = respEct[v] = resp;
+			for (v >>= 1; v >= 1; v >>= 1) {
+				int l = 2 * v, r = l + 1;
+				sumP[v] = sumP[l] + sumP[r];
+				ect[v] = Math.max(ect[r], ect[l] + sumP[r]);
+				if (sumPBar[l] + sumP[r] >= sumP[l] + sumPBar[r]) {
+					sumPBar[v] = sumPBar[l] + sumP[r];
+					respP[v] = respP[l];
+				} else {
+					sumPBar[v] = sumP[l] + sumPBar[r];
+					respP[v] = respP[r];
+				}
+				int e1 = ectBar[r], e2 = ect[l] + sumPBar[r], e3 = ectBar[l] + sumP[r];
+				if (e1 >= e2 && e1 >= e3) {
+					ectBar[v] = e1;
+					respEct[v] = respEct[r];
+				} else if (e2 >= e3) {
+					ectBar[v] = e2;
+					respEct[v] = respP[r];
+				} else {
+					ectBar[v] = e3;
+					respEct[v] = respEct[l];
+				}
+			}
+		}
+
+		private void insertWhite(int leaf, int est, int p) {
+			set(leaf, p, est + p, p, est + p, -1);
+		}
+
+		private void insertGray(int leaf, int est, int p, int task) {
+			set(leaf, 0, NONE, p, est + p, task);
+		}
+
+		private void remove(int leaf) {
+			set(leaf, 0, NONE, 0, NONE, -1);
+		}
+
+		private int ect() {
+			return ect[1];
+		}
+
+		private int ectBar() {
+			return ectBar[1];
+		}
+
+		private int responsible() {
+			return respEct[1];
+		}
+	}
+
+	/**********************************************************************************************
+	 * Class members
+	 *********************************************************************************************/
+
+	/**
+	 * The number of tasks
+	 */
+	protected final int nTasks;
+
+	/**
+	 * starts[i] is the variable denoting the starting time of the ith task
+	 */
+	protected final Variable[] starts;
+
+	private final ThetaLambdaTree tree;
+
+	/**
+	 * Data about tasks, computed at each pass (possibly with time reversed): earliest start, latest start, latest
+	 * completion, minimal length, and new (filtered) earliest start and latest completion
+	 */
+	private final int[] est, lst, lct, p, newEst, newLct;
+
+	/**
+	 * leaves[i] is the leaf (rank by earliest starts) of the ith task in the Θ-Λ-tree
+	 */
+	private final int[] leaves;
+
+	private final Integer[] byEst, byLct, byLst, byEct;
+
+	/**
+	 * The number of tasks (necessarily of positive minimal lengths) currently taken into account
+	 */
+	private int nActives;
+
+	public NoOverlap1D(Problem pb, Variable[] scp, Variable[] starts) {
+		super(pb, scp);
+		control(starts.length > 1);
+		this.nTasks = starts.length;
+		this.starts = starts;
+		this.tree = new ThetaLambdaTree(nTasks);
+		this.est = new int[nTasks];
+		this.lst = new int[nTasks];
+		this.lct = new int[nTasks];
+		this.p = new int[nTasks];
+		this.newEst = new int[nTasks];
+		this.newLct = new int[nTasks];
+		this.leaves = new int[nTasks];
+		this.byEst = new Integer[nTasks];
+		this.byLct = new Integer[nTasks];
+		this.byLst = new Integer[nTasks];
+		this.byEct = new Integer[nTasks];
+	}
+
+	/**
+	 * Loads the tasks, with time reversed if mirror is true. Tasks with a minimal length equal to 0 are discarded.
+	 */
+	private void load(boolean mirror) {
+		nActives = 0;
+		for (int i = 0; i < nTasks; i++) {
+			int min = minLength(i);
+			if (min == 0)
+				continue;
+			int first = starts[i].dom.firstValue(), last = starts[i].dom.lastValue();
+			est[i] = mirror ? -(last + maxLength(i)) : first;
+			lst[i] = mirror ? -(first + min) : last;
+			lct[i] = mirror ? -first : last + maxLength(i);
+			p[i] = min;
+			newEst[i] = est[i];
+			newLct[i] = lct[i];
+			byEst[nActives] = byLct[nActives] = byLst[nActives] = byEct[nActives] = i;
+			nActives++;
+		}
+		Arrays.sort(byEst, 0, nActives, (i, j) -> Integer.compare(est[i], est[j]));
+		for (int k = 0; k < nActives; k++)
+			leaves[byEst[k]] = k;
+		Arrays.sort(byLct, 0, nActives, (i, j) -> Integer.compare(lct[i], lct[j]));
+		Arrays.sort(byLst, 0, nActives, (i, j) -> Integer.compare(lst[i], lst[j]));
+		Arrays.sort(byEct, 0, nActives, (i, j) -> Integer.compare(est[i] + p[i], est[j] + p[j]));
+	}
+
+	private boolean overloadChecking() {
+		tree.clear();
+		for (int k = 0; k < nActives; k++) {
+			int j = byLct[k];
+			tree.insertWhite(leaves[j], est[j], p[j]);
+			if (tree.ect() > lct[j])
+				return false;
+		}
+		return true;
+	}
+
+	private int ectWithout(int i) {
+		tree.remove(leaves[i]);
+		int v = tree.ect();
+		tree.insertWhite(leaves[i], est[i], p[i]);
+		return v;
+	}
+
+	private void detectablePrecedences() {
+		tree.clear();
+		int q = 0;
+		for (int k = 0; k < nActives; k++) {
+			int i = byEct[k];
+			for (; q < nActives && est[i] + p[i] > lst[byLst[q]]; q++)
+				tree.insertWhite(leaves[byLst[q]], est[byLst[q]], p[byLst[q]]);
+			int v = lst[i] < est[i] + p[i] ? ectWithout(i) : tree.ect(); // i is in the tree iff it has a compulsory part
+			newEst[i] = Math.max(newEst[i], v);
+		}
+	}
+
+	private void notLast() {
+		tree.clear();
+		int q = 0, last = -1;
+		for (int k = 0; k < nActives; k++) {
+			int i = byLct[k];
+			for (; q < nActives && lct[i] > lst[byLst[q]]; q++) {
+				last = byLst[q];
+				tree.insertWhite(leaves[last], est[last], p[last]);
+			}
+			if (last != -1 && ectWithout(i) > lst[i])
+				newLct[i] = Math.min(newLct[i], lst[last]);
+		}
+	}
+
+	private boolean edgeFinding() {
+		tree.clear();
+		for (int k = 0; k < nActives; k++)
+			tree.insertWhite(leaves[byEst[k]], est[byEst[k]], p[byEst[k]]);
+		for (int k = nActives - 1; k > 0; k--) {
+			int j = byLct[k];
+			if (tree.ect() > lct[j])
+				return false;
+			tree.insertGray(leaves[j], est[j], p[j], j);
+			j = byLct[k - 1];
+			while (tree.ectBar() > lct[j]) {
+				int i = tree.responsible();
+				if (i == -1)
+					return false; // because the white tasks alone are in overload
+				newEst[i] = Math.max(newEst[i], tree.ect());
+				tree.remove(leaves[i]);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the rules (with time reversed if mirror is true), and updates the domains. Returns -1 if an inconsistency
+	 * is detected, the number of modified domains otherwise.
+	 */
+	private int filter(boolean mirror) {
+		load(mirror);
+		if (nActives < 2)
+			return 0;
+		if (!overloadChecking())
+			return -1;
+		detectablePrecedences();
+		notLast();
+		if (!edgeFinding())
+			return -1;
+		int cnt = 0;
+		for (int k = 0; k < nActives; k++) {
+			int i = byEst[k];
+			if (newEst[i] > est[i]) {
+				int size = starts[i].dom.size();
+				if (mirror) {
+					if (starts[i].dom.removeValuesGT(-newEst[i] - p[i]) == false || reduceMaxLength(i, -newEst[i]) == false)
+						return -1;
+				} else if (starts[i].dom.removeValuesLT(newEst[i]) == false)
+					return -1;
+				cnt += size != starts[i].dom.size() ? 1 : 0;
+			}
+			if (newLct[i] < lct[i]) {
+				int size = starts[i].dom.size();
+				if (mirror) {
+					if (starts[i].dom.removeValuesLT(-newLct[i]) == false)
+						return -1;
+				} else if (starts[i].dom.removeValuesGT(newLct[i] - p[i]) == false || reduceMaxLength(i, newLct[i]) == false)
+					return -1;
+				cnt += size != starts[i].dom.size() ? 1 : 0;
+			}
+		}
+		return cnt;
+	}
+
+	@Override
+	public boolean runPropagator(Variable dummy) {
+		while (true) {
+			int cnt1 = filter(false);
+			if (cnt1 == -1)
+				return false;
+			int cnt2 = filter(true);
+			if (cnt2 == -1)
+				return false;
+			if (cnt1 + cnt2 == 0)
+				return true;
+		}
+	}
+
+	/**********************************************************************************************
+	 * The two variants, depending on the fact that lengths are constants or variables
+	 *********************************************************************************************/
+
+	public static final class NoOverlap1DCst extends NoOverlap1D {
+
+		private final int[] lengths;
+
+		@Override
+		protected int length(int[] tuple, int i) {
+			return lengths[i];
+		}
+
+		@Override
+		protected int minLength(int i) {
+			return lengths[i];
+		}
+
+		@Override
+		protected int maxLength(int i) {
+			return lengths[i];
+		}
+
+		public NoOverlap1DCst(Problem pb, Variable[] starts, int[] lengths) {
+			super(pb, starts, starts);
+			control(starts.length == lengths.length && IntStream.of(lengths).allMatch(l -> l >= 0));
+			this.lengths = lengths;
+		}
+	}
+
+	public static final class NoOverlap1DVar extends NoOverlap1D {
+
+		private final Variable[] lengths;
+
+		@Override
+		protected int length(int[] tuple, int i) {
+			return tuple[nTasks + i];
+		}
+
+		@Override
+		protected int minLength(int i) {
+			return lengths[i].dom.firstValue();
+		}
+
+		@Override
+		protected int maxLength(int i) {
+			return lengths[i].dom.lastValue();
+		}
+
+		@Override
+		protected boolean reduceMaxLength(int i, int maxEnd) {
+			return lengths[i].dom.removeValuesGT(maxEnd - starts[i].dom.firstValue());
+		}
+
+		public NoOverlap1DVar(Problem pb, Variable[] starts, Variable[] lengths) {
+			super(pb, Utilities.collect(Variable.class, starts, lengths), starts);
+			control(starts.length == lengths.length && Stream.of(lengths).allMatch(x -> x.dom.firstValue() >= 0));
+			control(scp.length == 2 * starts.length, "Variables must be all distinct");
+			this.lengths = lengths;
+		}
+	}
+}
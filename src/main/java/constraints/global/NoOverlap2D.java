@@ -0,0 +1,248 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence). 
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS. 
+ * 
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package constraints.global;
+
+import static utility.Kit.control;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.xcsp.common.Utilities;
+
+import constraints.ConstraintGlobal;
+import interfaces.Tags.TagCallCompleteFiltering;
+import interfaces.Tags.TagNotAC;
+import problem.Problem;
+import variables.Variable;
+
+/**
+ * This constraint NoOverlap2D ensures that items defined as rectangles of various (fixed) sizes do not overlap. It is
+ * not decomposed: filtering is based on the sweep-point algorithm described in "Sweep as a Generic Pruning Technique
+ * Applied to the Non-overlapping Rectangles Constraint", CP 2001: 377-391, by N. Beldiceanu and M. Carlsson. For each
+ * item, and each bound of its origin along each axis, a sweep over the forbidden regions induced by the compulsory
+ * parts of the other items looks for the first feasible point. Optionally, an energetic check compares the area of the
+ * items with the area of their bounding box. <br />
+ * This is a simple version of the sweep: at each visited point, the regions are scanned to know if they cover the
+ * other axis, and to find the next point (jumping after the closest end of a region). Filtering one bound of one item
+ * is thus O(n^2) in the worst case, instead of O(n log n) with events sorted once and a structure maintaining the
+ * coverage of the other axis; this is deemed acceptable for the (usually small) numbers of items met in practice.
+ * 
+ * @author Christophe Lecoutre
+ */
+public final class NoOverlap2D extends ConstraintGlobal implements TagNotAC, TagCallCompleteFiltering {
+
+	@Override
+	public boolean isSatisfiedBy(int[] tuple) {
+		for (int i = 0; i < n; i++)
+			for (int j = i + 1; j < n; j++) {
+				int xi = tuple[i], xj = tuple[j], yi = tuple[i + n], yj = tuple[j + n];
+				if (ignored(i) || ignored(j))
+					continue;
+				if (!(xi + widths[i] <= xj || xj + widths[j] <= xi || yi + heights[i] <= yj || yj + heights[j] <= yi))
+					return false;
+			}
+		return true;
+	}
+
+	/**
+	 * The number of items
+	 */
+	private final int n;
+
+	/**
+	 * xs[i] is the position of the ith item along the x-axis
+	 */
+	private final Variable[] xs;
+
+	/**
+	 * widths[i] is the width of the ith item
+	 */
+	private final int[] widths;
+
+	/**
+	 * ys[i] is the position of the ith item along the y-axis
+	 */
+	private final Variable[] ys;
+
+	/**
+	 * heights[i] is the height of the ith item
+	 */
+	private final int[] heights;
+
+	/**
+	 * Indicates if an energetic check must be performed
+	 */
+	private final boolean energetic;
+
+	/**
+	 * The forbidden regions for the origin of the item currently considered, one per other item with a compulsory part:
+	 * [lows1[k],highs1[k]] along the swept axis and [lows2[k],highs2[k]] along the other axis (bounds being included)
+	 */
+	private final int[] lows1, highs1, lows2, highs2;
+
+	/**
+	 * The number of forbidden regions
+	 */
+	private int nRegions;
+
+	/**
+	 * The forbidden regions sorted according to their lower bounds along the other axis
+	 */
+	private final Integer[] regions;
+
+	public NoOverlap2D(Problem pb, Variable[] xs, int[] widths, Variable[] ys, int[] heights, boolean energetic) {
+		super(pb, Utilities.collect(Variable.class, xs, ys));
+		control(xs.length > 1 && xs.length == widths.length && ys.length == heights.length && xs.length == ys.length);
+		control(scp.length == xs.length + ys.length, "Variables must be all distinct");
+		control(IntStream.of(widths).allMatch(w -> w >= 0) && IntStream.of(heights).allMatch(h -> h >= 0));
+		this.n = xs.length;
+		this.xs = xs;
+		this.widths = widths;
+		this.ys = ys;
+		this.heights = heights;
+		this.energetic = energetic;
+		this.lows1 = new int[n];
+		this.highs1 = new int[n];
+		this.lows2 = new int[n];
+		this.highs2 = new int[n];
+		this.regions = new Integer[n];
+	}
+
+	private boolean ignored(int i) {
+		return widths[i] == 0 || heights[i] == 0; // because zero is ignored
+	}
+
+	/**
+	 * Computes the forbidden regions for the origin of the ith item, with v1 (of lengths l1) the swept axis and v2 (of
+	 * lengths l2) the other axis
+	 */
+	private void buildRegions(int i, Variable[] v1, int[] l1, Variable[] v2, int[] l2) {
+		nRegions = 0;
+		for (int j = 0; j < n; j++) {
+			if (j == i || ignored(j))
+				continue;
+			int ms1 = v1[j].dom.lastValue(), me1 = v1[j].dom.firstValue() + l1[j];
+			int ms2 = v2[j].dom.lastValue(), me2 = v2[j].dom.firstValue() + l2[j];
+			if (me1 <= ms1 || me2 <= ms2)
+				continue; // no compulsory part
+			lows1[nRegions] = ms1 - l1[i] + 1;
+			highs1[nRegions] = me1 - 1;
+			lows2[nRegions] = ms2 - l2[i] + 1;
+			highs2[nRegions] = me2 - 1;
+			regions[nRegions] = nRegions;
+			nRegions++;
+		}
+		Arrays.sort(regions, 0, nRegions, (k1, k2) -> Integer.compare(lows2[k1], lows2[k2]));
+	}
+
+	/**
+	 * Returns true if the regions containing the point t along the swept axis cover the interval [min,max] along the
+	 * other axis
+	 */
+	private boolean covered(int t, int min, int max) {
+		int y = min;
+		for (int r = 0; r < nRegions && y <= max; r++) {
+			int k = regions[r];
+			if (lows1[k] <= t && t <= highs1[k]) {
+				if (lows2[k] > y)
+					return false;
+				y = Math.max(y, highs2[k] + 1);
+			}
+		}
+		return y > max;
+	}
+
+	/**
+	 * Returns the smallest point in [from,to] along the swept axis that is not forbidden, or Integer.MAX_VALUE
+	 */
+	private int sweepUp(int from, int to, int min, int max) {
+		for (int t = from; t <= to;) {
+			if (!covered(t, min, max))
+				return t;
+			int next = Integer.MAX_VALUE; // all regions containing t are left by jumping after the closest end
+			for (int k = 0; k < nRegions; k++)
+				if (lows1[k] <= t && t <= highs1[k])
+					next = Math.min(next, highs1[k] + 1);
+			t = next;
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the greatest point in [from,to] along the swept axis that is not forbidden, or Integer.MIN_VALUE
+	 */
+	private int sweepDown(int from, int to, int min, int max) {
+		for (int t = to; t >= from;) {
+			if (!covered(t, min, max))
+				return t;
+			int next = Integer.MIN_VALUE;
+			for (int k = 0; k < nRegions; k++)
+				if (lows1[k] <= t && t <= highs1[k])
+					next = Math.max(next, lows1[k] - 1);
+			t = next;
+		}
+		return Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Filters the bounds of the origin of the ith item along the axis v1. Returns -1 if an inconsistency is detected,
+	 * 1 if the domain has been reduced, and 0 otherwise.
+	 */
+	private int filter(int i, Variable[] v1, int[] l1, Variable[] v2, int[] l2) {
+		buildRegions(i, v1, l1, v2, l2);
+		if (nRegions == 0)
+			return 0;
+		int first = v1[i].dom.firstValue(), last = v1[i].dom.lastValue(), min = v2[i].dom.firstValue(), max = v2[i].dom.lastValue();
+		int low = sweepUp(first, last, min, max);
+		if (low == Integer.MAX_VALUE)
+			return -1;
+		int high = sweepDown(low, last, min, max);
+		if (low == first && high == last)
+			return 0;
+		return v1[i].dom.removeValuesLT(low) && v1[i].dom.removeValuesGT(high) ? 1 : -1;
+	}
+
+	private boolean energeticCheck() {
+		long area = 0;
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			if (ignored(i))
+				continue;
+			area += (long) widths[i] * heights[i];
+			minX = Math.min(minX, xs[i].dom.firstValue());
+			minY = Math.min(minY, ys[i].dom.firstValue());
+			maxX = Math.max(maxX, xs[i].dom.lastValue() + widths[i]);
+			maxY = Math.max(maxY, ys[i].dom.lastValue() + heights[i]);
+		}
+		return area == 0 || area <= (long) (maxX - minX) * (maxY - minY);
+	}
+
+	@Override
+	public boolean runPropagator(Variable dummy) {
+		if (energetic && !energeticCheck())
+			return false;
+		for (boolean modified = true; modified;) {
+			modified = false;
+			for (int i = 0; i < n; i++) {
+				if (ignored(i))
+					continue;
+				int r1 = filter(i, xs, widths, ys, heights);
+				if (r1 == -1)
+					return false;
+				int r2 = filter(i, ys, heights, xs, widths);
+				if (r2 == -1)
+					return false;
+				modified = modified || r1 == 1 || r2 == 1;
+			}
+		}
+		return true;
+	}
+}
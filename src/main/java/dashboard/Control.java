@@ -415,6 +415,7 @@ public final class Control {
 		public final String data = addS("data", "", "", "Parameter similar to the one defined for " + org.xcsp.modeler.Compiler.class.getName());
 		public final String variant = addS("variant", "", "", "Parameter similar to the one defined for " + org.xcsp.modeler.Compiler.class.getName());
 		public final boolean shareBits = addB("shareBits", "", false, "Trying to save space by sharing bit vectors.");
+		public final boolean shareModel = addB("shareModel", "sm", false, "In portfolio or EPS mode, must we parse the instance once and share read-only structures between heads (workers)?");
 		public final SymmetryBreaking symmetryBreaking = addE("symmetryBreaking", "sb", NO, "Symmetry-breaking method (requires Saucy to be installed)");
 	}
 
@@ -476,10 +477,21 @@ public final class Control {
 		public final int arityLimitToNegative = addI("arityLimitToNegative", "aln", -1, "Limit on arity for converting positive table constraints to negative");
 		public final int variant = addI("variant", "extv", 0, "Variant to be used for some algorithms (e.g., VA or CMDD)");
 		public final boolean decremental = addB("decremental", "extd", true, "Must we use a decremental mode for some algorithms (e.g., STR2, CT or CMDD)");
+		public final int nThreads = addI("nThreads", "extnt", 1, "Number of threads (fork/join) for preparing tables and building CT masks");
+		public final int offHeapLimit = addI("offHeapLimit", "ohl", -1, "Limit on the number of tuples from which CT masks are stored off-heap (-1: never)");
+		public final boolean mappedMasks = addB("mappedMasks", "mm", false, "Must off-heap CT masks be stored in a temporary memory-mapped file?");
+		public final boolean hybridCT = addB("hybridCT", "hct", false, "Must we use CT (instead of STR) for hybrid/smart table constraints?");
+		public final int compressionLimit = addI("compressionLimit", "cpl", -1, "Limit on the number of tuples from which positive tables are compressed into starred tables (-1: never)");
+		public final boolean incrementalMDD = addB("incrementalMDD", "imdd", false, "Must we use an incremental propagator (MDD4R) for mdd/regular constraints?");
+		public final boolean flatMDD = addB("flatMDD", "fmdd", false, "Must we use the flat (array-based) form of MDDs for CMDDO?");
 
 		public boolean reverse(int arity, boolean positive) {
 			return (positive && arity <= arityLimitToNegative) || (!positive && arity <= arityLimitToPositive);
 		}
+
+		public boolean compress(int nTuples) {
+			return compressionLimit != -1 && nTuples >= compressionLimit;
+		}
 	}
 
 	public class OptionsIntension extends OptionGroup {
@@ -501,13 +513,18 @@ public final class Control {
 
 	public class OptionsGlobal extends OptionGroup {
 		public final int allDifferent = addI("allDifferent", "g_ad", 0, "Algorithm for AllDifferent");
+		public final int allDifferentBoundLimit = addI("allDifferentBoundLimit", "g_adbl", 1000,
+				"Minimal size of (interval) domains for automatically using bounds consistency for AllDifferent");
 		public final int allDifferentExcept = addI("allDifferentExcept", "g_ade", 0, "Algorithm for AllDifferentExcept");
 		public final int distinctVectors = addI("distinctVectors", "g_dv", 0, "Algorithm for DistinctVectors");
 		public final int allEqual = addI("allEqual", "g_ae", 0, "Algorithm for AllEqual");
 		public final int notAllEqual = addI("notAllEqual", "g_nae", 0, "Algorithm for NotAllEqual");
 		public final int circuit = addI("circuit", "g_circ", 0, "Algorithm for Circuit");
-		public final int noOverlap = addI("noOverlap", "g_no", 0, "Algorithm for NoOverlap");
+		public final int noOverlap = addI("noOverlap", "g_no", 0,
+				"Algorithm for NoOverlap: 0 (global), 1 (intension), 22 (starred tables, 2D only), 222 (hybrid tables) or 3 (pairwise)");
 		public final boolean redundNoOverlap = addB("redundNoOverlap", "r_no", true, "Must we post redundant constraints for NoOverlap?");
+		public final boolean energeticNoOverlap = addB("energeticNoOverlap", "e_no", true, "Must we perform an energetic check in NoOverlap2D?");
+		public final boolean timetableEdgeFinding = addB("timetableEdgeFinding", "ttef", false, "Must we use time-table edge-finding for Cumulative?");
 		public final int binpacking = addI("binpacking", "g_bp", 0, "Algorithm for BinPacking");
 		public final boolean viewForSum = addB("viewForSum", "vs", false, "Must we use views for Sum constraints, when possible?");
 		public final boolean eqDecForSum = addB("eqDecForSum", "eqs", false, "Must we post two constraints for Sum constraints, when the operator is EQ?");
@@ -549,7 +566,11 @@ public final class Control {
 	public class OptionsLearning extends OptionGroup {
 		public final LearningNogood nogood = addE("nogood", "ng", LearningNogood.RST, "Nogood recording technique (from restarts by default)");
 		public final int nogoodBaseLimit = addI("nogoodBaseLimit", "ngbl", 200000, "The maximum number of nogoods that can be stored in the base");
+		public final boolean nogoodBaseReduction = addB("nogoodBaseReduction", "ngbr", true,
+				"Must we reduce the base (keeping the most active half of nogoods) when it is full, instead of stopping recording?");
 		public final int nogoodArityLimit = addI("nogoodArityLimit", "ngal", Integer.MAX_VALUE, "The maximum arity of a nogood that can be recorded");
+		public final int nogoodShareArity = addI("nogoodShareArity", "ngsa", 4, "In portfolio mode, the maximum arity of nogoods exchanged between workers (0 for no exchange)");
+		public final int nogoodShareCapacity = addI("nogoodShareCapacity", "ngsc", 16384, "In portfolio mode, the number of slots of the buffer used to exchange nogoods");
 		public final LearningIps ips = addE("ips", "", LearningIps.NO, "IPS extraction technique (currently, no such learning by default)");
 		public final String ipsOperators = addS("ipsOperators", "ipso", "11011", "Reduction operators for IPSs; a sequence of 5 bits is used");
 		public final int ipsCompression = addI("ipsCompression", "ipsc", Deflater.NO_COMPRESSION, "IPS Compression for equivalence reasoning");
@@ -562,6 +583,9 @@ public final class Control {
 		public final boolean enablePrepro = addB("enablePrepro", "prepro", true, "Must we perform preprocessing?");
 		public boolean enableSearch = addB("enableSearch", "search", true, "Must we perform search?");
 		public final Branching branching = addE("branching", "branching", Branching.BIN, "Branching scheme for search (binary or non-binary)");
+		public final int nWorkers = addI("nWorkers", "workers", 1, "Number of workers for embarrassingly parallel search (EPS); 1 for sequential search");
+		public final int epsFactor = addI("epsFactor", "eps_f", 30, "In EPS mode, the targeted number of sub-problems per worker");
+		public final boolean workStealing = addB("workStealing", "ws", false, "In EPS mode, must idle workers steal open branches from busy workers?");
 	}
 
 	public class OptionsRestarts extends OptionGroup {
@@ -598,6 +622,7 @@ public final class Control {
 		public final SingletonStrategy singleton = addE("singleton", "sing", SingletonStrategy.LAST, "How to manage singleton variables during search");
 		public final boolean connected = addB("connected", "", false, "Must we select a variable necessarily connected to an already explicitly assigned one?");
 		public final boolean discardAux = addB("discardAux", "da", false, "Must we not branch on auxiliary variables introduced by the solver?");
+		public final boolean heap = addB("heap", "heap", false, "Must we select variables with a binary heap (for dom, wdeg and wdeg/dom)?");
 	}
 
 	public class OptionsValh extends OptionGroup {
@@ -186,6 +186,7 @@ public class Output implements ObserverOnConstruction, ObserverOnSolving, Observ
 	public static final String N_BACKTRACKS = "backs";
 	public static final String N_FAILED = "fails";
 	public static final String N_NOGOODS = "ngds";
+	public static final String N_DISCARDED_NOGOODS = "discardedNgds";
 	public static final String REVISIONS = "revisions";
 	public static final String GUARANTEED_AC = "guaranteedAC";
 	public static final String N_REMOVED_TUPLES = "nRemovedTuples";
@@ -628,6 +629,8 @@ public class Output implements ObserverOnConstruction, ObserverOnSolving, Observ
 		m.put(N_SINGLETON_TESTS, head.solver.propagation.nSingletonTests);
 		m.put(N_EFFECTIVE_SINGLETON_TESTS, head.solver.propagation.nEffectiveSingletonTests);
 		m.put(N_NOGOODS, head.solver.nogoodReasoner != null ? head.solver.nogoodReasoner.nNogoods : 0);
+		m.put(N_DISCARDED_NOGOODS, head.solver.nogoodReasoner != null ? head.solver.nogoodReasoner.nDiscardedNogoods : 0,
+				head.solver.nogoodReasoner != null && head.solver.nogoodReasoner.nDiscardedNogoods > 0);
 		m.separator();
 		m.put(STOP, head.solver.stopping == null ? "no" : head.solver.stopping.toString());
 		m.put(N_WRONG, stats.nWrongDecisions);
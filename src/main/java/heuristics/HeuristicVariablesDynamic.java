@@ -21,11 +21,14 @@ import java.util.stream.Stream;
 import constraints.Constraint;
 import interfaces.Observers.ObserverOnAssignments;
 import interfaces.Observers.ObserverOnConflicts;
+import interfaces.Observers.ObserverOnRemovals;
 import interfaces.Observers.ObserverOnRuns;
 import interfaces.Tags.TagMaximize;
 import sets.SetDense;
+import sets.SetSparse;
 import solver.Solver;
 import solver.Solver.Branching;
+import solver.Solver.StackedVariables;
 import utility.Kit;
 import variables.Domain;
 import variables.Variable;
@@ -47,8 +50,202 @@ public abstract class HeuristicVariablesDynamic extends HeuristicVariables {
 		ANY, FIRST, LAST;
 	}
 
+	/**
+	 * An indexed binary heap of future variables, ordered by decreasing (optimized) scores, with ties broken by
+	 * increasing variable numbers (so as to select the same variable as a linear scan of future variables). Keys are
+	 * recomputed only for the variables that have been marked as modified (domain reduced or restored, weight
+	 * updated) since the last selection. Besides, the key of the variable at the top of the heap is checked before
+	 * being returned (lazy invalidation), which is enough for any score that has decreased without notification.
+	 */
+	public final class VariableHeap implements ObserverOnAssignments, ObserverOnRemovals {
+
+		/**
+		 * The variables of the problem (redundant field)
+		 */
+		private final Variable[] variables;
+
+		/**
+		 * The heap, containing the numbers of the future variables from index 0 to size-1
+		 */
+		private final int[] heap;
+
+		/**
+		 * positions[x] is the index of the variable whose number is x in the heap, or -1 if it is not present
+		 */
+		private final int[] positions;
+
+		/**
+		 * keys[x] is the key (i.e., the last computed optimized score) of the variable whose number is x
+		 */
+		private final double[] keys;
+
+		/**
+		 * The number of variables currently in the heap
+		 */
+		private int size;
+
+		/**
+		 * The variables (numbers) whose keys must be recomputed before the next selection
+		 */
+		private final SetSparse modified;
+
+		/**
+		 * The number of the run for which the heap has been built
+		 */
+		private int numRun = Integer.MIN_VALUE;
+
+		private VariableHeap() {
+			this.variables = solver.problem.variables;
+			this.heap = new int[variables.length];
+			this.positions = new int[variables.length];
+			this.keys = new double[variables.length];
+			this.modified = new SetSparse(variables.length);
+		}
+
+		private double keyOf(Variable x) {
+			return options.singleton == SingletonStrategy.LAST && x.dom.size() == 1 ? Double.NEGATIVE_INFINITY : scoreOptimizedOf(x);
+		}
+
+		private boolean before(int x, int y) {
+			return keys[x] > keys[y] || (keys[x] == keys[y] && x < y);
+		}
+
+		private void place(int x, int i) {
+			heap[i] = x;
+			positions[x] = i;
+		}
+
+		private void siftUp(int i) {
+			int x = heap[i];
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (!before(x, heap[parent]))
+					break;
+				place(heap[parent], i);
+				i = parent;
+			}
+			place(x, i);
+		}
+
+		private void siftDown(int i) {
+			int x = heap[i];
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && before(heap[child + 1], heap[child]))
+					child++;
+				if (!before(heap[child], x))
+					break;
+				place(heap[child], i);
+				i = child;
+			}
+			place(x, i);
+		}
+
+		private void insert(Variable x) {
+			keys[x.num] = keyOf(x);
+			place(x.num, size++);
+			siftUp(size - 1);
+		}
+
+		private void delete(Variable x) {
+			int i = positions[x.num];
+			positions[x.num] = -1;
+			size--;
+			if (i == size)
+				return;
+			int y = heap[size];
+			place(y, i);
+			siftUp(i);
+			siftDown(positions[y]);
+		}
+
+		/**
+		 * Records that the key of the specified variable must be recomputed before the next selection
+		 * 
+		 * @param x
+		 *            a variable
+		 */
+		public void update(Variable x) {
+			modified.add(x.num);
+		}
+
+		private void rebuild() {
+			Arrays.fill(positions, -1);
+			size = 0;
+			for (Variable x = solver.futVars.first(); x != null; x = solver.futVars.next(x))
+				insert(x);
+			modified.clear();
+			numRun = solver.restarter.numRun;
+		}
+
+		@Override
+		public void afterRemoval(Variable x, int a) {
+			modified.add(x.num);
+		}
+
+		@Override
+		public void afterRemovals(Variable x, int nRemovals) {
+			modified.add(x.num);
+		}
+
+		@Override
+		public void afterAssignment(Variable x, int a) {
+			if (positions[x.num] != -1)
+				delete(x);
+		}
+
+		@Override
+		public void afterUnassignment(Variable x) {
+			if (numRun == solver.restarter.numRun && positions[x.num] == -1)
+				insert(x);
+			// domains reduced at the depth being left are going to be restored (this is called before restoration)
+			StackedVariables stacked = solver.stackedVariables;
+			int depth = solver.depth() + 1;
+			if (stacked.top != -1 && stacked.stack[stacked.top].dom.lastRemovedLevel() >= depth)
+				for (int i = stacked.top; stacked.stack[i] != null; i--)
+					modified.add(stacked.stack[i].num);
+		}
+
+		/**
+		 * Returns the best future variable, as it would be obtained by iterating over all future variables
+		 * 
+		 * @return the best future variable
+		 */
+		private Variable best() {
+			if (numRun != solver.restarter.numRun)
+				rebuild();
+			for (int i = modified.limit; i >= 0; i--) {
+				int x = modified.dense[i];
+				if (positions[x] != -1) {
+					keys[x] = keyOf(variables[x]);
+					siftUp(positions[x]);
+					siftDown(positions[x]);
+				}
+			}
+			modified.clear();
+			assert size == solver.futVars.size();
+			while (true) { // lazy invalidation
+				int x = heap[0];
+				double key = keyOf(variables[x]);
+				if (key == keys[x])
+					break;
+				keys[x] = key;
+				siftDown(0);
+			}
+			Variable x = variables[heap[0]];
+			return keys[x.num] == Double.NEGATIVE_INFINITY ? solver.futVars.first() : x;
+		}
+	}
+
+	/**
+	 * The heap used for selecting variables, or null if variables are selected by iterating over future variables
+	 */
+	public final VariableHeap heap;
+
 	public HeuristicVariablesDynamic(Solver solver, boolean anti) {
 		super(solver, anti);
+		boolean heapable = options.heap && (this instanceof Dom || this instanceof Wdeg || this instanceof WdegOnDom);
+		this.heap = heapable && options.singleton != SingletonStrategy.FIRST && !options.connected && !options.discardAux ? new VariableHeap() : null;
 	}
 
 	private int lastDepthWithOnlySingletons = Integer.MAX_VALUE;
@@ -67,6 +264,8 @@ public abstract class HeuristicVariablesDynamic extends HeuristicVariables {
 				return x;
 			}
 		}
+		if (heap != null)
+			return heap.best();
 		bestScoredVariable.reset(false);
 		if (options.singleton == SingletonStrategy.LAST) {
 			if (solver.depth() <= lastDepthWithOnlySingletons) {
@@ -241,36 +440,53 @@ public abstract class HeuristicVariablesDynamic extends HeuristicVariables {
 
 		@Override
 		public void afterAssignment(Variable x, int a) {
-			if (options.weighting != VAR && options.weighting != CHS)
+			if (options.weighting != VAR && options.weighting != CHS) {
 				for (Constraint c : x.ctrs)
 					if (c.futvars.size() == 1) {
 						int y = c.futvars.dense[0]; // the other variable whose score must be updated
 						vscores[c.scp[y].num] -= cvscores[c.num][y];
+						if (heap != null)
+							heap.update(c.scp[y]);
 					}
+			} else if (options.weighting == CHS && heap != null)
+				for (Constraint c : x.ctrs)
+					if (c.futvars.size() == 1) // the score of the last future variable of c no more includes c
+						heap.update(c.scp[c.futvars.dense[0]]);
 		}
 
 		@Override
 		public void afterUnassignment(Variable x) {
-			if (options.weighting != VAR && options.weighting != CHS)
+			if (options.weighting != VAR && options.weighting != CHS) {
 				for (Constraint c : x.ctrs)
 					if (c.futvars.size() == 2) {
 						// since a variable has just been unassigned, it means that there was only one future variable
 						int y = c.futvars.dense[0]; // the other variable whose score must be updated
 						vscores[c.scp[y].num] += cvscores[c.num][y];
+						if (heap != null)
+							heap.update(c.scp[y]);
 					}
+			} else if (options.weighting == CHS && heap != null)
+				for (Constraint c : x.ctrs)
+					if (c.futvars.size() == 2)
+						heap.update(c.scp[c.futvars.dense[0]]);
 		}
 
 		@Override
 		public void whenWipeout(Constraint c, Variable x) {
 			time++;
-			if (options.weighting == VAR)
+			if (options.weighting == VAR) {
 				vscores[x.num]++;
-			else if (c != null) {
+				if (heap != null)
+					heap.update(x);
+			} else if (c != null) {
 				if (options.weighting == CHS) {
 					double r = 1.0 / (time - ctime[c.num]);
 					double increment = alpha * (r - cscores[c.num]);
 					cscores[c.num] += increment;
 					alpha = Double.max(ALPHA_LIMIT, alpha - ALPHA_DECREMENT);
+					if (heap != null)
+						for (Variable y : c.scp)
+							heap.update(y);
 				} else {
 					double increment = 1;
 					cscores[c.num] += increment; // just +1 in that case (can be useful for other objects, but not
@@ -295,6 +511,8 @@ public abstract class HeuristicVariablesDynamic extends HeuristicVariables {
 						}
 						vscores[y.num] += increment;
 						cvscores[c.num][futvars.dense[i]] += increment;
+						if (heap != null)
+							heap.update(y);
 					}
 				}
 				ctime[c.num] = time;
@@ -123,7 +123,8 @@ public interface Observers {
 
 		/**
 		 * Interface for observing backtracks performed by the solver. Used for observers that systematically require
-		 * restoration.
+		 * restoration. Note that constraints implementing this interface are only called at the levels where they have
+		 * been filtered (see the class StackedConstraints in Solver).
 		 */
 		interface ObserverOnBacktracksSystematic extends ObserverOnBacktracks {
 		}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence).
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS.
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package learning;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import problem.Problem;
+import utility.Kit;
+
+/**
+ * This class allows workers (heads) running in parallel (portfolio mode) to exchange short nogoods. This is a bounded
+ * lock-free ring buffer: a worker publishes a nogood by claiming a slot with an atomic counter, and each worker reads
+ * published nogoods from its own cursor. When a reader is too slow, nogoods that have been overwritten are simply lost.
+ * Nogoods are only exchanged between workers solving problems with the same variables, domains and constraints: decisions
+ * are encoded from variable numbers and value indexes, and some options (e.g., symmetry-breaking) may post constraints
+ * that make a nogood valid for one worker but not for another.
+ *
+ * @author Christophe Lecoutre
+ */
+public final class NogoodExchange {
+
+	/**********************************************************************************************
+	 * Static members
+	 *********************************************************************************************/
+
+	/**
+	 * The exchange objects, one per distinct fingerprint of problems (i.e., per set of compatible workers)
+	 */
+	private static final Map<String, NogoodExchange> exchanges = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the exchange object to be used by the workers solving problems whose variables and constraints are
+	 * identical to the ones of the specified problem
+	 *
+	 * @param problem
+	 *            a problem
+	 * @param capacity
+	 *            the number of slots of the buffer (used if the object must be built)
+	 * @return the exchange object to be used for the specified problem
+	 */
+	public static NogoodExchange of(Problem problem, int capacity) {
+		String fingerprint = problem.name() + " " + Stream.of(problem.variables).map(x -> x.id() + ":" + x.dom.typeName()).collect(Collectors.joining(" "))
+				+ " " + Stream.of(problem.constraints).map(c -> c.getClass().getName() + Kit.join(Stream.of(c.scp).mapToInt(x -> x.num).toArray()))
+						.collect(Collectors.joining(" "));
+		return exchanges.computeIfAbsent(fingerprint, k -> new NogoodExchange(capacity));
+	}
+
+	/**
+	 * A nogood published by a worker. Objects are immutable, and so can be safely read by other workers.
+	 */
+	static final class SharedNogood {
+
+		/**
+		 * The sequence number of the nogood (i.e., the number of the claimed slot)
+		 */
+		final long seq;
+
+		/**
+		 * The (negative) decisions forming the nogood
+		 */
+		final int[] decisions;
+
+		/**
+		 * The limit of the objective constraint when the nogood was published (irrelevant for satisfaction)
+		 */
+		final long limit;
+
+		/**
+		 * The object that published the nogood
+		 */
+		final Object owner;
+
+		private SharedNogood(long seq, int[] decisions, long limit, Object owner) {
+			this.seq = seq;
+			this.decisions = decisions;
+			this.limit = limit;
+			this.owner = owner;
+		}
+	}
+
+	/**
+	 * An interface for the objects receiving shared nogoods
+	 */
+	@FunctionalInterface
+	interface Receiver {
+
+		/**
+		 * Called for each nogood published by another worker
+		 *
+		 * @param decisions
+		 *            the (negative) decisions forming the nogood
+		 * @param limit
+		 *            the limit of the objective constraint when the nogood was published
+		 * @return false if the worker must stop receiving nogoods (e.g., because an inconsistency is detected)
+		 */
+		boolean receive(int[] decisions, long limit);
+	}
+
+	/**********************************************************************************************
+	 * Class members
+	 *********************************************************************************************/
+
+	/**
+	 * The slots of the ring buffer
+	 */
+	private final AtomicReferenceArray<SharedNogood> slots;
+
+	/**
+	 * The number of slots that have been claimed so far
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	private NogoodExchange(int capacity) {
+		this.slots = new AtomicReferenceArray<>(capacity);
+	}
+
+	/**
+	 * @return the current position of the tail of the buffer (to be used as the initial cursor of a reader)
+	 */
+	long tail() {
+		return tail.get();
+	}
+
+	/**
+	 * Publishes the specified nogood
+	 *
+	 * @param decisions
+	 *            the (negative) decisions forming the nogood
+	 * @param limit
+	 *            the limit of the objective constraint when the nogood was built
+	 * @param owner
+	 *            the object publishing the nogood
+	 */
+	void publish(int[] decisions, long limit, Object owner) {
+		long seq = tail.getAndIncrement();
+		slots.set((int) (seq % slots.length()), new SharedNogood(seq, decisions, limit, owner));
+	}
+
+	/**
+	 * Delivers to the specified receiver all nogoods published by other workers from the specified cursor, and returns
+	 * the new cursor. Slots that have been overwritten, or that are claimed but not yet written, are skipped.
+	 *
+	 * @param cursor
+	 *            the position from which nogoods must be read
+	 * @param owner
+	 *            the object collecting nogoods (its own published nogoods are ignored)
+	 * @param receiver
+	 *            the object receiving the nogoods
+	 * @return the new position of the cursor
+	 */
+	long collect(long cursor, Object owner, Receiver receiver) {
+		long end = tail.get();
+		for (long seq = Math.max(cursor, end - slots.length()); seq < end; seq++) {
+			SharedNogood nogood = slots.get((int) (seq % slots.length()));
+			if (nogood == null || nogood.seq != seq || nogood.owner == owner)
+				continue;
+			if (!receiver.receive(nogood.decisions, nogood.limit))
+				return seq + 1;
+		}
+		return end;
+	}
+}
@@ -11,15 +11,20 @@
 package learning;
 
 import static java.util.stream.Collectors.joining;
+import static utility.Kit.control;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 import dashboard.Control.OptionsLearning;
+import dashboard.Input;
+import optimization.Optimizer;
+import optimization.Optimizer.OptimizerDecreasing;
 import sets.SetDense;
 import solver.Decisions;
 import solver.Solver;
+import solver.Solver.Stopping;
 import utility.Kit;
 import variables.Variable;
 
@@ -62,25 +67,15 @@ public final class NogoodReasoner {
 	 *********************************************************************************************/
 
 	/**
-	 * Class for cells used in linked lists.
+	 * Offsets of the fields of a nogood in the arena: its number, its size, the positions of its two watched decisions,
+	 * and then its decisions
 	 */
-	private static final class WatchCell {
+	private static final int NUM = 0, SIZE = 1, WATCH1 = 2, WATCH2 = 3, HEADER = 4;
 
-		/**
-		 * The nogood recorded in the cell
-		 */
-		private Nogood nogood;
-
-		/**
-		 * The next cell, following this one, or null
-		 */
-		private WatchCell next;
-
-		private WatchCell(Nogood nogood, WatchCell next) {
-			this.nogood = nogood;
-			this.next = next;
-		}
-	}
+	/**
+	 * The factor used for decaying the activity of nogoods at each run (by increasing the value of bumps)
+	 */
+	private static final double ACTIVITY_DECAY = 0.95;
 
 	/**
 	 * The solver to which this object is attached
@@ -98,9 +93,26 @@ public final class NogoodReasoner {
 	final OptionsLearning options;
 
 	/**
-	 * Arrays with recorded nogoods (at indexes ranging from 0 to nNogoods, excluded)
+	 * The arena where all recorded nogoods are stored contiguously (from index 0 to arenaSize, excluded). Each nogood
+	 * is identified by its offset in the arena; see constants NUM, SIZE, WATCH1, WATCH2 and HEADER.
+	 */
+	private int[] arena;
+
+	/**
+	 * The number of ints currently used in the arena
 	 */
-	private Nogood[] nogoods;
+	private int arenaSize;
+
+	/**
+	 * The offsets (in the arena) of recorded nogoods (at indexes ranging from 0 to nNogoods, excluded)
+	 */
+	private int[] nogoods;
+
+	/**
+	 * activities[i] is the activity of the ith recorded nogood, i.e., a score increased each time the nogood is
+	 * involved in a filtering operation (and relatively decaying over time)
+	 */
+	private double[] activities;
 
 	/**
 	 * The number of recorded nogoods
@@ -108,25 +120,56 @@ public final class NogoodReasoner {
 	public int nNogoods;
 
 	/**
-	 * Positive watch lists; pws[x][a] is the first cell (nogood) involving the positive literal (x=a) as being watched
+	 * The literal (x != a) is identified by the number bases[x] + a
 	 */
-	private final WatchCell[][] pws;
+	private final int[] bases;
 
 	/**
-	 * Negative watch lists; nws[x][a] is the first cell (nogood) involving the negative literal (x!=a) as being watched
+	 * Watch lists; watches[l] contains the offsets of the nogoods watching the literal l (from index 0 to
+	 * watchSizes[l], excluded). A nogood recorded more recently comes later in the list.
 	 */
-	private final WatchCell[][] nws;
+	private final int[][] watches;
 
 	/**
-	 * The first free cell (i.e. from the pool of free cells)
+	 * watchSizes[l] is the number of nogoods watching the literal l
 	 */
-	private WatchCell free;
+	private final int[] watchSizes;
 
 	/**
 	 * A temporary array
 	 */
 	private int[] tmp;
 
+	/**
+	 * The value added to the activity of a nogood when it is involved in a filtering operation
+	 */
+	private double bump = 1;
+
+	/**
+	 * The number of nogoods discarded when reducing the base
+	 */
+	public long nDiscardedNogoods;
+
+	/**
+	 * The number of nogoods published to other workers (portfolio mode)
+	 */
+	public long nPublishedNogoods;
+
+	/**
+	 * The number of nogoods imported from other workers (portfolio mode), and that were not satisfied at the root
+	 */
+	public long nImportedNogoods;
+
+	/**
+	 * The object used to exchange nogoods with other workers (portfolio mode), or null
+	 */
+	private final NogoodExchange exchange;
+
+	/**
+	 * The position from which nogoods published by other workers must be read
+	 */
+	private long exchangeCursor;
+
 	// NogoodMinimizer nogoodMinimizer;
 	// SymmetryHandler symmetryHandler;
 
@@ -140,26 +183,89 @@ public final class NogoodReasoner {
 		this.solver = solver;
 		this.decisions = solver.decisions;
 		this.options = solver.head.control.learning;
-		this.nogoods = new Nogood[options.nogoodBaseLimit];
-		this.pws = Stream.of(solver.problem.variables).map(x -> new WatchCell[x.dom.initSize()]).toArray(WatchCell[][]::new);
-		this.nws = Stream.of(solver.problem.variables).map(x -> new WatchCell[x.dom.initSize()]).toArray(WatchCell[][]::new);
-		this.tmp = new int[solver.problem.variables.length];
+		this.arena = new int[1024];
+		this.nogoods = new int[Math.min(options.nogoodBaseLimit, 1024)];
+		this.activities = new double[nogoods.length];
+		Variable[] variables = solver.problem.variables;
+		this.bases = new int[variables.length];
+		for (int i = 1; i < variables.length; i++)
+			bases[i] = bases[i - 1] + variables[i - 1].dom.initSize();
+		int nLiterals = variables.length == 0 ? 0 : bases[variables.length - 1] + variables[variables.length - 1].dom.initSize();
+		this.watches = new int[nLiterals][];
+		this.watchSizes = new int[nLiterals];
+		this.tmp = new int[variables.length];
+		this.exchange = Input.portfolio && options.nogoodShareArity > 0 ? NogoodExchange.of(solver.problem, options.nogoodShareCapacity) : null;
 		// nogoodMinimizer = options.nogood == LearningNogood.RST_MIN ? new NogoodMinimizer(solver) : null;
 		// symmetryHandler = options.nogood == RST_SYM ? new SymmetryHandler(this,problem.variables.length) : null;
 	}
 
 	/**
-	 * Clears the nogood base
+	 * Clears the nogood base (the memory of the arena and of the watch lists is kept for being reused)
 	 */
 	public void reset() {
 		nNogoods = 0;
-		for (WatchCell[] t : pws) // TODO put them in free instead
-			Arrays.fill(t, null);
-		for (WatchCell[] t : nws) // TODO put them in free instead
-			Arrays.fill(t, null);
+		arenaSize = 0;
+		Arrays.fill(watchSizes, 0);
 		// control(symmetryHandler == null);
 	}
 
+	private int literalOf(int decision) {
+		return bases[decisions.numIn(decision)] + decisions.idxIn(decision);
+	}
+
+	private int decisionOf(int nogood, int position) {
+		return arena[nogood + HEADER + position];
+	}
+
+	/**
+	 * Reduces the base by discarding (about) the less useful half of the nogoods. Nogoods are ordered by decreasing
+	 * activity, and then by increasing size (note that nogoods extracted from restarts contain decisions taken at
+	 * different levels, and so their size is also their LBD, literal block distance). Binary nogoods are always kept.
+	 * The arena is compacted, and the relative order of nogoods in watch lists is preserved.
+	 * 
+	 * @return true if some nogoods have been discarded
+	 */
+	private boolean reduce() {
+		Integer[] order = IntStream.range(0, nNogoods).boxed()
+				.sorted(Comparator.comparingDouble((Integer i) -> -activities[i]).thenComparingInt(i -> arena[nogoods[i] + SIZE])).toArray(Integer[]::new);
+		int nKept = nNogoods / 2;
+		for (int i = nKept; i < nNogoods; i++)
+			if (arena[nogoods[order[i]] + SIZE] == 2)
+				order[nKept++] = order[i];
+		if (nKept == nNogoods)
+			return false;
+		// the new offset of each kept nogood is recorded (in place of its number) in the old arena, and -1 otherwise
+		int[] newArena = new int[arena.length], newNogoods = new int[nogoods.length];
+		double[] newActivities = new double[activities.length];
+		for (int i = 0; i < nNogoods; i++)
+			arena[nogoods[i] + NUM] = -1;
+		int newSize = 0;
+		for (int i = 0; i < nKept; i++) {
+			int nogood = nogoods[order[i]], length = HEADER + arena[nogood + SIZE];
+			System.arraycopy(arena, nogood, newArena, newSize, length);
+			newArena[newSize + NUM] = i;
+			newNogoods[i] = newSize;
+			newActivities[i] = activities[order[i]];
+			arena[nogood + NUM] = newSize;
+			newSize += length;
+		}
+		for (int l = 0; l < watches.length; l++) {
+			int cnt = 0;
+			for (int i = 0; i < watchSizes[l]; i++)
+				if (arena[watches[l][i] + NUM] != -1)
+					watches[l][cnt++] = arena[watches[l][i] + NUM];
+			watchSizes[l] = cnt;
+		}
+		nDiscardedNogoods += nNogoods - nKept;
+		arena = newArena;
+		arenaSize = newSize;
+		nogoods = newNogoods;
+		activities = newActivities;
+		nNogoods = nKept;
+		assert controlWatches();
+		return true;
+	}
+
 	/**
 	 * Important: currently not caleld
 	 * 
@@ -170,7 +276,8 @@ public final class NogoodReasoner {
 	public boolean checkIndexes(int[] t) {
 		// note that nogoods are stored with indexes of values
 		extern: for (int i = 0; i < nNogoods; i++) {
-			for (int d : nogoods[i].decisions) {
+			for (int j = 0; j < arena[nogoods[i] + SIZE]; j++) {
+				int d = decisionOf(nogoods[i], j);
 				int x = decisions.numIn(d);
 				int a = decisions.idxIn(d);
 				if (t[x] != a)
@@ -186,19 +293,18 @@ public final class NogoodReasoner {
 	 *********************************************************************************************/
 
 	private boolean canBeWatched(int decision) {
-		assert decision != 0;
+		assert decision < 0;
 		Variable x = decisions.varIn(decision);
 		int a = decisions.idxIn(decision);
-		return decision > 0 ? x.dom.contains(a) : x.dom.size() > 1 || !x.dom.contains(a);
+		return x.dom.size() > 1 || !x.dom.contains(a);
 	}
 
-	private boolean canFindAnotherWatchFor(Nogood nogood, boolean firstWatch) {
-		int[] literals = nogood.decisions;
-		int start = nogood.getWatch(firstWatch);
-		int r = literals.length, limit = r + start;
+	private boolean canFindAnotherWatchFor(int nogood, boolean firstWatch) {
+		int r = arena[nogood + SIZE], start = arena[nogood + (firstWatch ? WATCH1 : WATCH2)], limit = r + start;
+		int watch1 = arena[nogood + WATCH1], watch2 = arena[nogood + WATCH2];
 		for (int j = start + 1; j < limit; j++) {
-			int i = j % r; // going from start+1 to literals.length and from 0 to start
-			if (!nogood.isWatch(i) && canBeWatched(literals[i])) {
+			int i = j % r; // going from start+1 to r and from 0 to start
+			if (i != watch1 && i != watch2 && canBeWatched(decisionOf(nogood, i))) {
 				addWatchFor(nogood, i, firstWatch);
 				return true;
 			}
@@ -207,7 +313,7 @@ public final class NogoodReasoner {
 	}
 
 	/**
-	 * Applies the specified decision
+	 * Applies the specified (negative) decision
 	 * 
 	 * @param decision
 	 *            the decision to be applied
@@ -217,51 +323,57 @@ public final class NogoodReasoner {
 		Variable x = decisions.varIn(decision);
 		int a = decisions.idxIn(decision);
 		solver.propagation.currFilteringCtr = null;
-		return decision > 0 ? x.dom.reduceTo(a) : x.dom.removeIfPresent(a);
-	}
-
-	private boolean checkWatchesOf(WatchCell[] watchCells, int a, int watchedDecision) {
-		WatchCell previous = null, current = watchCells[a];
-		while (current != null) {
-			Nogood nogood = current.nogood;
-			int watchedDecision2 = nogood.watchedDecisionOtherThan(watchedDecision);
-			if (!decisions.varIn(watchedDecision2).dom.contains(decisions.idxIn(watchedDecision2))) {
-				previous = current;
-				current = current.next;
-			} else if (canFindAnotherWatchFor(nogood, nogood.firstWatchedDecision() == watchedDecision)) {
-				WatchCell tmp = current.next;
-				if (previous == null)
-					watchCells[a] = current.next;
-				else
-					previous.next = current.next;
-				current.next = free;
-				free = current;
-				current = tmp;
-			} else {
-				previous = current;
-				current = current.next;
-				if (apply(nogood.watchedDecisionOtherThan(watchedDecision)) == false)
-					return false;
-			}
-		}
-		assert controlWatches();
-		return true;
+		return x.dom.removeIfPresent(a);
 	}
 
 	/**
-	 * Checks and infers the consequences of the specified decision
+	 * Checks and infers the consequences of the negative decision (x != a) having become false, i.e., of x being
+	 * assigned to a. Watch lists are iterated from the most recently recorded nogoods, and the nogoods that remain in
+	 * the list are kept in the same order.
 	 * 
 	 * @param x
 	 *            a variable
 	 * @param a
 	 *            a value index for x
-	 * @param positive
-	 *            true if the studied decision is positive (x=a), false if it is negative (x != a)
 	 * @return false if an inconsistency is detected
 	 */
-	public boolean checkWatchesOf(Variable x, int a, boolean positive) {
-		return positive ? checkWatchesOf(pws[x.num], a, decisions.positiveDecisionFor(x.num, a))
-				: checkWatchesOf(nws[x.num], a, decisions.negativeDecisionFor(x.num, a));
+	public boolean checkWatchesOf(Variable x, int a) {
+		int l = bases[x.num] + a, size = watchSizes[l];
+		if (size == 0)
+			return true;
+		int[] list = watches[l];
+		int watchedDecision = decisions.negativeDecisionFor(x.num, a);
+		int w = size; // nogoods remaining in the list are moved from size-1 downwards
+		for (int r = size - 1; r >= 0; r--) {
+			int nogood = list[r];
+			boolean first = decisionOf(nogood, arena[nogood + WATCH1]) == watchedDecision;
+			assert first || decisionOf(nogood, arena[nogood + WATCH2]) == watchedDecision;
+			int otherDecision = decisionOf(nogood, arena[nogood + (first ? WATCH2 : WATCH1)]);
+			if (!decisions.varIn(otherDecision).dom.contains(decisions.idxIn(otherDecision)))
+				list[--w] = nogood; // the nogood is satisfied
+			else if (!canFindAnotherWatchFor(nogood, first)) {
+				list[--w] = nogood;
+				activities[arena[nogood + NUM]] += bump;
+				if (activities[arena[nogood + NUM]] > 1e100) // rescaling
+					rescaleActivities();
+				if (apply(otherDecision) == false) {
+					System.arraycopy(list, w, list, r, size - w); // the part from 0 to r-1 has not been iterated
+					watchSizes[l] = r + size - w;
+					assert controlWatches();
+					return false;
+				}
+			}
+		}
+		System.arraycopy(list, w, list, 0, size - w);
+		watchSizes[l] = size - w;
+		assert controlWatches();
+		return true;
+	}
+
+	private void rescaleActivities() {
+		for (int i = 0; i < nNogoods; i++)
+			activities[i] *= 1e-100;
+		bump *= 1e-100;
 	}
 
 	// public boolean runPropagator(Variable x) {
@@ -272,20 +384,14 @@ public final class NogoodReasoner {
 	 * About recording
 	 *********************************************************************************************/
 
-	private void addWatchFor(Nogood nogood, int position, boolean firstWatch) {
-		int decision = nogood.decisions[position];
-		WatchCell[] cells = decision > 0 ? pws[decisions.numIn(decision)] : nws[decisions.numIn(decision)];
-		int a = decisions.idxIn(decision);
-		if (free == null)
-			cells[a] = new WatchCell(nogood, cells[a]);
-		else {
-			WatchCell cell = free;
-			free = free.next;
-			cell.nogood = nogood;
-			cell.next = cells[a];
-			cells[a] = cell;
-		}
-		nogood.setWatch(position, firstWatch);
+	private void addWatchFor(int nogood, int position, boolean firstWatch) {
+		int l = literalOf(decisionOf(nogood, position));
+		if (watches[l] == null)
+			watches[l] = new int[4];
+		else if (watchSizes[l] == watches[l].length)
+			watches[l] = Arrays.copyOf(watches[l], watches[l].length * 2);
+		watches[l][watchSizes[l]++] = nogood;
+		arena[nogood + (firstWatch ? WATCH1 : WATCH2)] = position;
 	}
 
 	/**
@@ -301,18 +407,36 @@ public final class NogoodReasoner {
 		// System.out.println(" nog : " + IntStream.of(negativeDecisions).mapToObj(d ->
 		// decisions.stringOf(d)).collect(joining(" ")));
 		// }
-
-		if (nNogoods < nogoods.length) {
+		control(negativeDecisions.length > 1);
+		assert IntStream.of(negativeDecisions).noneMatch(d -> d >= 0);
+		if (nNogoods == options.nogoodBaseLimit && options.nogoodBaseReduction)
+			reduce();
+		if (nNogoods < options.nogoodBaseLimit) {
 			if (toBeSorted)
 				Arrays.sort(negativeDecisions);
-			Nogood nogood = new Nogood(negativeDecisions);
-			nogoods[nNogoods++] = nogood;
-			addWatchFor(nogood, negativeDecisions.length - 2, true);
-			addWatchFor(nogood, negativeDecisions.length - 1, false);
+			if (nNogoods == nogoods.length) {
+				int capacity = Math.min(options.nogoodBaseLimit, nogoods.length * 2);
+				nogoods = Arrays.copyOf(nogoods, capacity);
+				activities = Arrays.copyOf(activities, capacity);
+			}
+			int r = negativeDecisions.length;
+			while (arenaSize + HEADER + r > arena.length)
+				arena = Arrays.copyOf(arena, arena.length * 2);
+			int nogood = arenaSize;
+			arena[nogood + NUM] = nNogoods;
+			arena[nogood + SIZE] = r;
+			System.arraycopy(negativeDecisions, 0, arena, nogood + HEADER, r);
+			arenaSize += HEADER + r;
+			nogoods[nNogoods] = nogood;
+			activities[nNogoods] = bump; // so that new nogoods are not immediately discarded
+			nNogoods++;
+			addWatchFor(nogood, r - 2, true);
+			addWatchFor(nogood, r - 1, false);
 			// if (symmetryHandler != null) symmetryHandler.addNogood(decs);
 		}
 	}
 
+
 	/**
 	 * Adds all nogoods that can be extracted from the current branch
 	 */
@@ -320,6 +444,9 @@ public final class NogoodReasoner {
 		SetDense set = decisions.set;
 		if (!options.nogood.isRstType() || set.size() < 2)
 			return;
+		bump /= ACTIVITY_DECAY; // so that recent activity matters more
+		if (bump > 1e100)
+			rescaleActivities();
 		int nMetPositiveDecisions = 0;
 		for (int i = 0; i <= set.limit; i++) {
 			int d = set.dense[i];
@@ -344,6 +471,7 @@ public final class NogoodReasoner {
 					negativeDecisions[j] = -tmp[j];
 				negativeDecisions[nMetPositiveDecisions] = d;
 				addNogood(negativeDecisions, false); // symmetryHandler != null);
+				publish(negativeDecisions);
 				// }
 				// if (symmetryHandler != null) symmetryHandler.handleSymmetricNaryNogoods(currentNogood);
 			}
@@ -352,45 +480,114 @@ public final class NogoodReasoner {
 		assert controlWatches();
 	}
 
-	private boolean controlLists(WatchCell[][] watches, boolean positive) {
-		for (int x = 0; x < watches.length; x++)
-			for (int a = 0; a < watches[x].length; a++) {
-				int decision = positive ? decisions.positiveDecisionFor(x, a) : decisions.negativeDecisionFor(x, a);
-				for (WatchCell cell = watches[x][a]; cell != null; cell = cell.next)
-					if (!cell.nogood.isDecisionWatched(decision)) {
-						Kit.log.warning("nogood = " + cell.nogood + " is not watched");
-						return false;
-					}
-			}
-		return true;
+	/**********************************************************************************************
+	 * About exchanging (portfolio mode)
+	 *********************************************************************************************/
+
+	/**
+	 * Returns true if nogoods can be currently exchanged with other workers. This is the case when only one solution is
+	 * searched for, or when optimizing by decreasingly updating the bound (nogoods recorded for a bound remain valid
+	 * for tighter bounds). Note that the bound of the objective is recorded with each exchanged nogood.
+	 * 
+	 * @return true if nogoods can be currently exchanged with other workers
+	 */
+	private boolean canExchange() {
+		if (exchange == null)
+			return false;
+		Optimizer optimizer = solver.problem.optimizer;
+		if (optimizer == null)
+			return solver.head.control.general.solLimit == 1;
+		return optimizer instanceof OptimizerDecreasing && optimizer.gapStrategy.hasBeenAlwaysSafe();
+	}
+
+	/**
+	 * Returns true if a nogood recorded by another worker for the specified limit of the objective constraint is valid
+	 * for this worker
+	 */
+	private boolean isCompatible(long limit) {
+		Optimizer optimizer = solver.problem.optimizer;
+		return optimizer == null || (optimizer.minimization ? optimizer.ctr.limit() <= limit : optimizer.ctr.limit() >= limit);
 	}
 
-	private boolean controlNogood(int watchedDecision, Nogood nogood) {
-		int x = decisions.numIn(watchedDecision), a = decisions.idxIn(watchedDecision);
-		WatchCell first = watchedDecision > 0 ? pws[x][a] : nws[x][a];
-		for (WatchCell cell = first; cell != null; cell = cell.next)
-			if (cell.nogood == nogood)
+	private void publish(int[] negativeDecisions) {
+		if (negativeDecisions.length <= options.nogoodShareArity && canExchange()) {
+			exchange.publish(negativeDecisions, solver.problem.optimizer == null ? 0 : solver.problem.optimizer.ctr.limit(), this);
+			nPublishedNogoods++;
+		}
+	}
+
+	/**
+	 * Imports the nogoods published by other workers since the last call. This method must be called at the root
+	 * node (typically, before a new run). Literals that are satisfied or falsified at the root are discarded. When a
+	 * nogood becomes unary, the corresponding value is directly removed, and the root propagation must be rerun (as
+	 * indicated by the returned value).
+	 * 
+	 * @return true if some values have been removed (root propagation must be rerun)
+	 */
+	public boolean importSharedNogoods() {
+		if (!canExchange())
+			return false;
+		assert solver.depth() == 0;
+		boolean[] removals = new boolean[1];
+		exchangeCursor = exchange.collect(exchangeCursor, this, (negativeDecisions, limit) -> {
+			if (!isCompatible(limit))
 				return true;
-		return false;
+			int cnt = 0;
+			for (int d : negativeDecisions) {
+				Variable x = decisions.varIn(d);
+				int a = decisions.idxIn(d);
+				if (!x.dom.contains(a))
+					return true; // the nogood is satisfied at the root
+				if (x.dom.size() > 1)
+					tmp[cnt++] = d;
+			}
+			nImportedNogoods++;
+			if (cnt == 0) {
+				solver.stopping = Stopping.FULL_EXPLORATION;
+				return false;
+			}
+			if (cnt == 1) {
+				solver.propagation.currFilteringCtr = null;
+				decisions.varIn(tmp[0]).dom.remove(decisions.idxIn(tmp[0]));
+				removals[0] = true;
+			} else
+				addNogood(Arrays.copyOf(tmp, cnt), false);
+			return true;
+		});
+		return removals[0];
 	}
 
 	private boolean controlWatches() {
-		if (!controlLists(pws, true) || !controlLists(nws, false))
-			return false;
+		for (int l = 0; l < watches.length; l++)
+			for (int i = 0; i < watchSizes[l]; i++) {
+				int nogood = watches[l][i];
+				if (literalOf(decisionOf(nogood, arena[nogood + WATCH1])) != l && literalOf(decisionOf(nogood, arena[nogood + WATCH2])) != l) {
+					Kit.log.warning("nogood = " + toString(nogood) + " is not watched");
+					return false;
+				}
+			}
 		for (int i = 0; i < nNogoods; i++) {
-			if (nogoods[i] == null)
-				continue;
-			if (!controlNogood(nogoods[i].firstWatchedDecision(), nogoods[i]) || !controlNogood(nogoods[i].secondWatchedDecision(), nogoods[i]))
+			int nogood = nogoods[i];
+			if (arena[nogood + NUM] != i || !isInWatchList(nogood, arena[nogood + WATCH1]) || !isInWatchList(nogood, arena[nogood + WATCH2]))
 				return false;
 		}
 		return true;
 	}
 
+	private boolean isInWatchList(int nogood, int position) {
+		int l = literalOf(decisionOf(nogood, position));
+		return IntStream.range(0, watchSizes[l]).anyMatch(i -> watches[l][i] == nogood);
+	}
+
+	private String toString(int nogood) {
+		return IntStream.range(0, arena[nogood + SIZE]).mapToObj(i -> decisions.stringOf(decisionOf(nogood, i))).collect(joining(" "));
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder("Nogoods = {\n");
 		for (int i = 0; i < nNogoods; i++)
-			sb.append(IntStream.of(nogoods[i].decisions).mapToObj(d -> decisions.stringOf(d)).collect(joining(" "))).append("\n");
+			sb.append(toString(nogoods[i])).append("\n");
 		return sb.append("}").toString();
 	}
 
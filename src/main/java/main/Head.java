@@ -51,6 +51,7 @@ import heuristics.HeuristicVariables;
 import interfaces.Observers.ObserverOnConstruction;
 import problem.Problem;
 import problem.Problem.SymmetryBreaking;
+import problem.XCSP3;
 import propagation.Propagation;
 import solver.Solver;
 import utility.Kit;
@@ -251,6 +252,18 @@ public class Head extends Thread {
 	 */
 	public static class StructureSharing {
 
+		/**
+		 * The object storing the data structures that are shared by all heads (workers) when the model is shared, in
+		 * portfolio or EPS mode. Any access to it must be synchronized on it.
+		 */
+		private static final StructureSharing global = new StructureSharing();
+
+		/**
+		 * The number of heads that still use the structures of the global object (i.e., heads that have loaded the
+		 * current instance with a shared model, and are not done with it)
+		 */
+		private static int nHolders;
+
 		/**
 		 * The map that associates an intension structure (tree evaluator) with an intension constraint key
 		 */
@@ -266,6 +279,32 @@ public class Head extends Thread {
 		 */
 		public Map<String, MDD> mapForMDDs = new HashMap<>();
 
+		/**
+		 * The map that associates a short name with a table key (built from the signature and the tuples of an
+		 * extension constraint)
+		 */
+		public Map<String, String> mapForTableKeys = new HashMap<>();
+
+		/**
+		 * The map that associates a compressed (starred) table with a table key (built from the signature and the
+		 * tuples of an extension constraint)
+		 */
+		public Map<String, int[][]> mapForCompressedTables = new HashMap<>();
+
+		private StructureSharing() {
+		}
+
+		/**
+		 * Builds an object whose maps for extension structures, MDDs, table keys and compressed tables are those of the global object.
+		 * Intension structures are never shared between heads because tree evaluators are not thread-safe.
+		 */
+		private StructureSharing(StructureSharing global) {
+			this.mapForExtension = global.mapForExtension;
+			this.mapForMDDs = global.mapForMDDs;
+			this.mapForTableKeys = global.mapForTableKeys;
+			this.mapForCompressedTables = global.mapForCompressedTables;
+		}
+
 		/**
 		 * Clears all maps that stores information about the sharing of data structures
 		 */
@@ -273,6 +312,8 @@ public class Head extends Thread {
 			mapForIntension.clear();
 			mapForExtension.clear();
 			mapForMDDs.clear();
+			mapForTableKeys.clear();
+			mapForCompressedTables.clear();
 			Bits.map.clear();
 		}
 	}
@@ -328,6 +369,19 @@ public class Head extends Thread {
 	 */
 	public StructureSharing structureSharing = new StructureSharing();
 
+	/**
+	 * Indicates if the head uses the structures shared (through the global object of StructureSharing) by all heads
+	 */
+	private boolean holdingSharedModel;
+
+	/**
+	 * @return true if the problem instance is parsed and compiled only once, with read-only structures (tables, MDDs,
+	 *         ...) shared by all heads (workers) in portfolio or EPS mode
+	 */
+	public boolean isModelShared() {
+		return (Input.portfolio || control.solving.nWorkers > 1) && control.problem.shareModel && !(this instanceof HeadExtraction);
+	}
+
 	/**
 	 * The object that may be used in different steps of resolution: randomization of heuristics, generation of random
 	 * solutions,...
@@ -418,7 +472,7 @@ public class Head extends Thread {
 	 *            the problem (instance) to be solved
 	 * @return the solver that will be used to solve the specified problem
 	 */
-	protected final Solver buildSolver(Problem problem) {
+	public final Solver buildSolver(Problem problem) {
 		log.config("\n" + Output.COMMENT_PREFIX + "Building solver... ");
 		this.solver = Reflector.buildObject(control.solving.clazz, Solver.class, this);
 		for (ObserverOnConstruction obs : observersConstruction)
@@ -426,6 +480,49 @@ public class Head extends Thread {
 		return solver;
 	}
 
+	/**
+	 * Builds and returns the ith problem instance to be solved, while managing the structures that can be shared
+	 * 
+	 * @param i
+	 *            the index/number (in a sequence) of the problem instance to be built
+	 * @return the ith problem instance to be solved
+	 */
+	public final Problem loadProblem(int i) {
+		if (isModelShared()) {
+			// the first head parses the instance and builds the structures, and the others only build their own state
+			synchronized (StructureSharing.global) {
+				if (!holdingSharedModel) {
+					holdingSharedModel = true;
+					StructureSharing.nHolders++;
+				}
+				structureSharing = new StructureSharing(StructureSharing.global);
+				problem = buildProblem(i);
+			}
+			structureSharing.mapForIntension.clear();
+		} else {
+			structureSharing.clear();
+			problem = buildProblem(i);
+			structureSharing.clear();
+		}
+		return problem;
+	}
+
+	/**
+	 * Indicates that the head is done with the structures shared by all heads. Once no head uses them anymore, the
+	 * shared maps and parsers are cleared, so that they do not keep the instance alive.
+	 */
+	public final void releaseSharedModel() {
+		if (!holdingSharedModel)
+			return;
+		synchronized (StructureSharing.global) {
+			holdingSharedModel = false;
+			if (--StructureSharing.nHolders == 0) {
+				StructureSharing.global.clear();
+				XCSP3.clearSharedParsers();
+			}
+		}
+	}
+
 	/**
 	 * Solves the ith problem instance (usually, i=0 as there is only one instance to be solved).
 	 * 
@@ -434,13 +531,15 @@ public class Head extends Thread {
 	 */
 	protected void solveInstance(int i) {
 		this.observersConstruction = permamentObserversConstruction.stream().collect(toCollection(ArrayList::new));
-		structureSharing.clear();
-		problem = buildProblem(i);
-		structureSharing.clear();
-		if (control.solving.enablePrepro || control.solving.enableSearch) {
-			solver = buildSolver(problem);
-			solver.solve();
-			solver.solutions.displayFinalResults();
+		try {
+			loadProblem(i);
+			if (control.solving.enablePrepro || control.solving.enableSearch) {
+				solver = buildSolver(problem);
+				solver.solve();
+				solver.solutions.displayFinalResults();
+			}
+		} finally {
+			releaseSharedModel(); // with EPS, workers are done at this point
 		}
 	}
 
@@ -459,7 +558,7 @@ public class Head extends Thread {
 					e.printStackTrace();
 			}
 		}
-		if (Input.portfolio) { // in that case, only one instance to solve (see control in Input)
+		if (Input.portfolio && heads != null) { // only one instance to solve (see control in Input); heads is null in tests
 			if (!crashed[0]) {
 				Head.saveMultithreadResultsFiles(this);
 				System.exit(0);
@@ -77,7 +77,7 @@ public abstract class GapStrategy implements IGap {
 
     private long remainingBudget() {
         Restarter res = this.problem.solver.restarter;
-        return res.currCutoff - res.measureSupplier.get();
+        return res.currCutoff - res.measureSupplier.getAsLong();
     }
 
     private void checkBoundAndBudget() {
@@ -13,10 +13,8 @@ package problem;
 import static java.util.stream.Collectors.joining;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.IntStream;
@@ -134,12 +132,6 @@ public final class Features {
 		 */
 		public final List<Constraint> constraints = new ArrayList<>();
 
-		/**
-		 * The keys used for tables, that have been collected so far, and used when storing tuples of a table
-		 * constraint. Relevant only for symmetry-breaking.
-		 */
-		public final Map<String, String> tableKeys = new HashMap<>();
-
 		/**
 		 * Ids of discarded variables
 		 */
@@ -121,8 +121,10 @@ import constraints.ConstraintExtension.Extension1;
 import constraints.ConstraintIntension;
 import constraints.extension.CHybrid;
 import constraints.extension.CMDD.CMDDO;
+import constraints.extension.CMDD4R;
 import constraints.extension.structures.Table;
 import constraints.extension.structures.TableHybrid.HybridTuple;
+import constraints.global.AllDifferent.AllDifferentBound;
 import constraints.global.AllDifferent.AllDifferentComplete;
 import constraints.global.AllDifferent.AllDifferentCounting;
 import constraints.global.AllDifferent.AllDifferentExceptWeak;
@@ -168,6 +170,9 @@ import constraints.global.NValues.NValuesCst.NValuesCstGE;
 import constraints.global.NValues.NValuesCst.NValuesCstLE;
 import constraints.global.NValues.NValuesVar;
 import constraints.global.NoOverlap;
+import constraints.global.NoOverlap1D.NoOverlap1DCst;
+import constraints.global.NoOverlap1D.NoOverlap1DVar;
+import constraints.global.NoOverlap2D;
 import constraints.global.Precedence;
 import constraints.global.Product.ProductSimple;
 import constraints.global.Sum.SumSimple;
@@ -233,6 +238,7 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 	public static final int EXTENSION_ORDINARY = 2;
 	public static final int EXTENSION_STARRED = 22;
 	public static final int EXTENSION_HYBRID = 222;
+	public static final int PAIRWISE = 3;
 
 	/**
 	 * Different ways of breaking symmetries
@@ -1165,15 +1171,21 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 	@Override
 	public final CtrAlone regular(Var[] list, Automaton automaton) {
 		unimplementedIf(!automaton.isDeterministic(), "non deterministic automaton");
+		if (head.control.extension.incrementalMDD)
+			return post(new CMDD4R(this, translate(list), automaton));
 		return post(new CMDDO(this, translate(list), automaton));
 	}
 
 	@Override
 	public final CtrAlone mdd(Var[] list, Transition[] transitions) {
+		if (head.control.extension.incrementalMDD)
+			return post(new CMDD4R(this, translate(list), transitions));
 		return post(new CMDDO(this, translate(list), transitions));
 	}
 
 	public final CtrAlone mdd(Var[] list, int[][] tuples) {
+		if (head.control.extension.incrementalMDD)
+			return post(new CMDD4R(this, translate(list), tuples));
 		return post(new CMDDO(this, translate(list), tuples));
 	}
 
@@ -1193,6 +1205,8 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 		case 0:
 			if (head.control.global.permutation && AllDifferentPermutation.isElligible(scp))
 				return post(new AllDifferentPermutation(this, scp));
+			if (AllDifferentBound.isElligible(scp, head.control.global.allDifferentBoundLimit))
+				return post(new AllDifferentBound(this, scp));
 			return post(new AllDifferentComplete(this, scp));
 		case 1:
 			return forall(range(scp.length).range(scp.length), (i, j) -> {
@@ -1207,7 +1221,8 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 		// return post(new AllDifferentExceptWeak(this, scp, null, true));
 		case 3:
 			return post(new AllDifferentCounting(this, scp));
-		// case 4: return post(new AllDifferentBound(this, scp));
+		case 4:
+			return post(new AllDifferentBound(this, scp));
 		default:
 			throw new AssertionError("Invalid mode");
 		}
@@ -2128,10 +2143,23 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 	 * 
 	 * b) posting cumulative(origins, lengths, null, Kit.repeat(1, origins.length), api.condition(LE, 1)) does not seem
 	 * to be very interesting. To be checked!
+	 * 
+	 * By default, a global constraint NoOverlap1D is posted (and redundant constraints are not) if all variables are
+	 * distinct; otherwise, the constraint is decomposed into binary constraints (one for each pair of tasks that may
+	 * overlap).
 	 */
 	@Override
 	public final CtrEntity noOverlap(Var[] origins, int[] lengths, boolean zeroIgnored) {
 		unimplementedIf(!zeroIgnored, "noOverlap");
+		int algo = head.control.global.noOverlap;
+		unimplementedIf(algo != BASE && algo != INTENSION_DECOMPOSITION && algo != EXTENSION_HYBRID && algo != PAIRWISE, "noOverlap with g_no=" + algo);
+		if (algo == BASE && Variable.areAllDistinct(translate(origins))) {
+			int[] relevant = IntStream.range(0, origins.length).filter(i -> lengths[i] > 0).toArray(); // because zero ignored
+			if (relevant.length < 2)
+				return null;
+			Variable[] starts = IntStream.of(relevant).mapToObj(i -> (Variable) origins[i]).toArray(Variable[]::new);
+			return post(new NoOverlap1DCst(this, starts, IntStream.of(relevant).map(i -> lengths[i]).toArray()));
+		}
 		if (head.control.global.redundNoOverlap) {
 			// we post redundant constraints (after introducing auxiliary variables)
 			Var[] aux = auxVarArray(origins.length, range(origins.length));
@@ -2144,14 +2172,16 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 			for (int j = i + 1; j < origins.length; j++) {
 				Variable xi = (Variable) origins[i], xj = (Variable) origins[j];
 				int li = lengths[i], lj = lengths[j];
+				if (li == 0 || lj == 0)
+					continue; // because zero ignored
 				if (xi.dom.lastValue() + li <= xj.dom.firstValue() || xj.dom.lastValue() + lj <= xi.dom.firstValue())
 					continue;
-				if (head.control.global.noOverlap == INTENSION_DECOMPOSITION)
+				if (algo == INTENSION_DECOMPOSITION)
 					intension(or(le(add(xi, li), xj), le(add(xj, lj), xi)));
-				else if (head.control.global.noOverlap == EXTENSION_HYBRID)
+				else if (algo == EXTENSION_HYBRID)
 					post(CHybrid.noOverlap(this, xi, xj, li, lj));
-				else
-					post(new Disjonctive(this, xi, li, xj, lj)); // BASE
+				else // PAIRWISE, or BASE when some variables occur several times
+					post(new Disjonctive(this, xi, li, xj, lj));
 			}
 		return null;
 	}
@@ -2159,51 +2189,81 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 	@Override
 	public final CtrEntity noOverlap(Var[] origins, Var[] lengths, boolean zeroIgnored) {
 		unimplementedIf(!zeroIgnored, "noOverlap");
+		int algo = head.control.global.noOverlap;
+		unimplementedIf(algo != BASE && algo != INTENSION_DECOMPOSITION && algo != PAIRWISE, "noOverlap with g_no=" + algo);
+		if (algo == BASE && Variable.areAllDistinct(translate(vars(origins, lengths)))) {
+			int[] relevant = IntStream.range(0, origins.length).filter(i -> ((Variable) lengths[i]).dom.lastValue() > 0).toArray(); // because zero ignored
+			if (relevant.length < 2)
+				return null;
+			Variable[] starts = IntStream.of(relevant).mapToObj(i -> (Variable) origins[i]).toArray(Variable[]::new);
+			return post(new NoOverlap1DVar(this, starts, IntStream.of(relevant).mapToObj(i -> (Variable) lengths[i]).toArray(Variable[]::new)));
+		}
 		for (int i = 0; i < origins.length; i++)
 			for (int j = i + 1; j < origins.length; j++) {
 				Variable xi = (Variable) origins[i], xj = (Variable) origins[j];
 				Variable wi = (Variable) lengths[i], wj = (Variable) lengths[j];
-				if (head.control.global.noOverlap == INTENSION_DECOMPOSITION)
-					intension(or(le(add(xi, wi), xj), le(add(xj, wj), xi)));
-				else
+				if (wi.dom.lastValue() == 0 || wj.dom.lastValue() == 0)
+					continue; // because zero ignored
+				if (algo == INTENSION_DECOMPOSITION || wi.dom.containsValue(0) || wj.dom.containsValue(0)) // a task of length 0 is ignored
+					intension(or(le(add(xi, wi), xj), le(add(xj, wj), xi), Stream.of(wi, wj).filter(w -> w.dom.containsValue(0)).map(w -> eq(w, 0))));
+				else // PAIRWISE, or BASE when some variables occur several times
 					post(new DisjonctiveVar(this, xi, xj, wi, wj));
 			}
 		return null;
 	}
 
+	/**
+	 * 2-dimensional no-overlap
+	 * 
+	 * By default, a global constraint NoOverlap2D (sweep-based) is posted, possibly together with two redundant
+	 * cumulative constraints; otherwise, the constraint is decomposed into constraints (one for each pair of items
+	 * that may overlap).
+	 */
 	@Override
 	public final CtrEntity noOverlap(Var[][] origins, int[][] lengths, boolean zeroIgnored) {
 		unimplementedIf(!zeroIgnored, "noOverlap");
 		unimplementedIf(origins[0].length != 2, "noOverlap");
-		if (head.control.global.redundNoOverlap) {
-			// we post two redundant cumulative constraints, and a global noOverlap
+		int algo = head.control.global.noOverlap;
+		unimplementedIf(algo != BASE && algo != INTENSION_DECOMPOSITION && algo != EXTENSION_STARRED && algo != EXTENSION_HYBRID && algo != PAIRWISE,
+				"noOverlap with g_no=" + algo);
+		Var[] ox = Stream.of(origins).map(t -> t[0]).toArray(Var[]::new), oy = Stream.of(origins).map(t -> t[1]).toArray(Var[]::new);
+		int[] tx = Stream.of(lengths).mapToInt(t -> t[0]).toArray(), ty = Stream.of(lengths).mapToInt(t -> t[1]).toArray();
+		int[] pos = IntStream.range(0, ox.length).filter(i -> tx[i] > 0 && ty[i] > 0).toArray(); // items of size 0 are ignored
+		boolean global = algo == BASE && Variable.areAllDistinct(translate(vars(ox, oy)));
+		if (head.control.global.redundNoOverlap && pos.length > 1) {
+			// we post two redundant cumulative constraints (and a global noOverlap when decomposing)
 			// TODO post only if pressure is high (related to number of continues below)
-			Var[] ox = Stream.of(origins).map(t -> t[0]).toArray(Var[]::new), oy = Stream.of(origins).map(t -> t[1]).toArray(Var[]::new);
-			int[] tx = Stream.of(lengths).mapToInt(t -> t[0]).toArray(), ty = Stream.of(lengths).mapToInt(t -> t[1]).toArray();
-			int minX = Stream.of(ox).mapToInt(x -> ((Variable) x).dom.firstValue()).min().orElseThrow();
-			int maxX = IntStream.range(0, ox.length).map(i -> ((Variable) ox[i]).dom.lastValue() + tx[i]).max().orElseThrow();
-			int minY = Stream.of(oy).mapToInt(x -> ((Variable) x).dom.firstValue()).min().orElseThrow();
-			int maxY = IntStream.range(0, oy.length).map(i -> ((Variable) oy[i]).dom.lastValue() + ty[i]).max().orElseThrow();
-			cumulative(ox, tx, null, ty, api.condition(LE, maxY - (long) minY));
-			cumulative(oy, ty, null, tx, api.condition(LE, maxX - (long) minX));
-			post(new NoOverlap(this, translate(ox), tx, translate(oy), ty)); // TODO: may be very expensive
-		}
+			Var[] px = IntStream.of(pos).mapToObj(i -> ox[i]).toArray(Var[]::new), py = IntStream.of(pos).mapToObj(i -> oy[i]).toArray(Var[]::new);
+			int[] pw = IntStream.of(pos).map(i -> tx[i]).toArray(), ph = IntStream.of(pos).map(i -> ty[i]).toArray();
+			int minX = Stream.of(px).mapToInt(x -> ((Variable) x).dom.firstValue()).min().orElseThrow();
+			int maxX = IntStream.range(0, px.length).map(i -> ((Variable) px[i]).dom.lastValue() + pw[i]).max().orElseThrow();
+			int minY = Stream.of(py).mapToInt(x -> ((Variable) x).dom.firstValue()).min().orElseThrow();
+			int maxY = IntStream.range(0, py.length).map(i -> ((Variable) py[i]).dom.lastValue() + ph[i]).max().orElseThrow();
+			cumulative(px, pw, null, ph, api.condition(LE, maxY - (long) minY));
+			cumulative(py, ph, null, pw, api.condition(LE, maxX - (long) minX));
+			if (!global)
+				post(new NoOverlap(this, translate(px), pw, translate(py), ph)); // TODO: may be very expensive
+		}
+		if (global)
+			return post(new NoOverlap2D(this, translate(ox), tx, translate(oy), ty, head.control.global.energeticNoOverlap));
 
 		for (int i = 0; i < origins.length; i++)
 			for (int j = i + 1; j < origins.length; j++) {
 				Variable xi = (Variable) origins[i][0], xj = (Variable) origins[j][0], yi = (Variable) origins[i][1], yj = (Variable) origins[j][1];
 				int wi = lengths[i][0], wj = lengths[j][0], hi = lengths[i][1], hj = lengths[j][1];
+				if (wi == 0 || hi == 0 || wj == 0 || hj == 0)
+					continue; // because zero ignored
 				if (xi.dom.lastValue() + wi <= xj.dom.firstValue() || xj.dom.lastValue() + wj <= xi.dom.firstValue())
 					continue;
 				if (yi.dom.lastValue() + hi <= yj.dom.firstValue() || yj.dom.lastValue() + hj <= yi.dom.firstValue())
 					continue;
-				if (head.control.global.noOverlap == INTENSION_DECOMPOSITION) // VERY expensive
+				if (algo == INTENSION_DECOMPOSITION) // VERY expensive
 					intension(or(le(add(xi, wi), xj), le(add(xj, wj), xi), le(add(yi, hi), yj), le(add(yj, hj), yi)));
-				else if (head.control.global.noOverlap == EXTENSION_STARRED) // seems to be rather efficient
+				else if (algo == EXTENSION_STARRED) // seems to be rather efficient
 					extension(vars(xi, xj, yi, yj), Table.starredNoOverlap(xi, xj, yi, yj, wi, wj, hi, hj), true, true);
-				else if (head.control.global.noOverlap == EXTENSION_HYBRID)
+				else if (algo == EXTENSION_HYBRID)
 					post(CHybrid.noOverlap(this, xi, yi, xj, yj, wi, hi, wj, hj));
-				else
+				else // PAIRWISE, or BASE when some variables occur several times
 					post(new Disjonctive2D(this, xi, xj, yi, yj, wi, wj, hi, hj));
 			}
 		return null;
@@ -2472,7 +2532,7 @@ public final class Problem extends ProblemIMP implements ObserverOnConstruction
 
 	/** Builds and returns a smart constraint. */
 	public final CtrAlone hybrid(IVar[] scp, HybridTuple... smartTuples) {
-		return post(new CHybrid(this, translate(scp), smartTuples));
+		return post(CHybrid.build(this, translate(scp), smartTuples));
 	}
 
 	/**********************************************************************************************
@@ -24,6 +24,7 @@ import java.io.File;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -87,6 +88,21 @@ import variables.Variable.VariableSymbolic;
  */
 public class XCSP3 implements ProblemAPI, XCallbacks2 {
 
+	/**
+	 * The parsers of the instances that have already been loaded (key is the filename), when the model is shared
+	 * between heads in portfolio or EPS mode. Parsing (i.e., reading the XML document and building tuples, transitions,
+	 * trees, ...) is then only performed once, and the parsed objects are shared read-only.
+	 */
+	private static final Map<String, XParser> sharedParsers = new HashMap<>();
+
+	/**
+	 * Forgets the parsers of the instances that have already been loaded. The caller must hold the lock on the
+	 * structures shared by the heads.
+	 */
+	public static void clearSharedParsers() {
+		sharedParsers.clear();
+	}
+
 	/**
 	 * Implementation for callbacks
 	 */
@@ -150,7 +166,10 @@ public class XCSP3 implements ProblemAPI, XCallbacks2 {
 			OptionsGeneral options = problem.head.control.general;
 			if (options.verbose > 1)
 				XParser.VERBOSE = true;
-			loadInstance(name(), options.discardClasses.split(","));
+			if (problem.head.isModelShared())
+				loadSharedInstance(name(), options.discardClasses.split(","));
+			else
+				loadInstance(name(), options.discardClasses.split(","));
 		} catch (Exception e) {
 			e.printStackTrace();
 			System.out.println("Problem when parsing the instance. Fix the problem.");
@@ -158,6 +177,42 @@ public class XCSP3 implements ProblemAPI, XCallbacks2 {
 		}
 	}
 
+	/**
+	 * Loads the instance whose filename is given, while parsing it only if this has not already been done by another
+	 * head. The caller must hold the lock on the structures shared by the heads, because the parsed objects (e.g.,
+	 * templates of groups) are temporarily modified when loaded.
+	 * 
+	 * @param filename
+	 *            the name of an XCSP3 file
+	 * @param discardedClasses
+	 *            the name of the classes (tags) of elements that must be discarded when parsing
+	 * @throws Exception
+	 */
+	private void loadSharedInstance(String filename, String[] discardedClasses) throws Exception {
+		String key = filename + " " + String.join(",", discardedClasses);
+		XParser parser = sharedParsers.get(key);
+		if (parser == null) {
+			parser = new XParser(loadDocument(filename), discardedClasses);
+			sharedParsers.put(key, parser);
+		}
+		// we follow the scheme of the method loadInstance(Document, String...) of XCallbacks
+		implem().resetStructures();
+		beginInstance(parser.typeFramework);
+		beginVariables(parser.vEntries);
+		loadVariables(parser);
+		endVariables();
+		beginConstraints(parser.cEntries);
+		loadConstraints(parser);
+		endConstraints();
+		beginObjectives(parser.oEntries, parser.typeCombination);
+		loadObjectives(parser);
+		endObjectives();
+		beginAnnotations(parser.aEntries);
+		loadAnnotations(parser);
+		endAnnotations();
+		endInstance();
+	}
+
 	@Override
 	public void beginInstance(TypeFramework type) {
 	}
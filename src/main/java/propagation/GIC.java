@@ -113,6 +113,7 @@ public class GIC extends StrongConsistency { // GIC is GIC1
 		for (Constraint c : solver.problem.constraints)
 			if (c instanceof STR1) { // || constraint instanceof AllDifferent) {
 				int bef = solver.problem.nValueRemovals;
+				solver.stackConstraint(c);
 				((STR1) c).runPropagator(null); // to update tables
 				control(solver.problem.nValueRemovals == bef);
 			}
@@ -15,7 +15,7 @@ import java.util.stream.IntStream;
 import constraints.Constraint;
 import constraints.ConstraintGlobal;
 import dashboard.Control.OptionsPropagation;
-import interfaces.Observers.ObserverOnConflicts;
+import interfaces.Observers.ObserverOnBacktracks.ObserverOnBacktracksSystematic;
 import learning.IpsReasonerDominance;
 import sets.SetSparse;
 import solver.Solver;
@@ -98,7 +98,7 @@ public abstract class Propagation {
 		public boolean isNogoodConsistent(Variable x) {
 			Domain dom = x.dom;
 			if (solver.nogoodReasoner != null)
-				if (dom.size() == 1 && solver.nogoodReasoner.checkWatchesOf(x, dom.first(), false) == false)
+				if (dom.size() == 1 && solver.nogoodReasoner.checkWatchesOf(x, dom.first()) == false)
 					return false;
 			if (ipsDominanceReasoning == null) { // first call
 				ipsDominanceReasoning = solver.ipsReasoner instanceof IpsReasonerDominance ? Boolean.TRUE : Boolean.FALSE;
@@ -292,6 +292,8 @@ public abstract class Propagation {
 	public final boolean propagate(ConstraintGlobal c) {
 		if (c == null || c.ignored || solver.isEntailed(c))
 			return true;
+		if (c instanceof ObserverOnBacktracksSystematic)
+			solver.stackConstraint(c);
 		if (c.runPropagator(null) == false)
 			return false;
 		return propagate(); // because the queue may be not empty
@@ -340,8 +342,8 @@ public abstract class Propagation {
 	public final boolean handleReduction(Variable x, int newDomSize) {
 		if (newDomSize == 0) {
 			lastWipeoutVar = x;
-			for (ObserverOnConflicts obs : solver.observersOnConflicts)
-				obs.whenWipeout(currFilteringCtr, x);
+			for (int i = 0; i < solver.observersOnConflicts.length; i++)
+				solver.observersOnConflicts[i].whenWipeout(currFilteringCtr, x);
 			// queue.clear();
 			return false;
 		}
@@ -35,7 +35,9 @@ public final class Decisions implements ObserverOnRuns, ObserverOnAssignments {
 
 	@Override
 	public void afterRun() {
-		set.clear();
+		// negative decisions are discarded; positive decisions only remain when the run started below the root (EPS)
+		while (set.limit >= 0 && set.dense[set.limit] < 0)
+			set.limit--;
 	}
 
 	@Override
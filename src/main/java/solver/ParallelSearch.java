@@ -0,0 +1,409 @@
+/*
+ * This file is part of the constraint solver ACE (AbsCon Essence).
+ *
+ * Copyright (c) 2021. All rights reserved.
+ * Christophe Lecoutre, CRIL, Univ. Artois and CNRS.
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package solver;
+
+import static solver.Solver.Stopping.FULL_EXPLORATION;
+import static utility.Kit.control;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import constraints.Constraint;
+import dashboard.Input;
+import interfaces.Observers.ObserverOnConflicts;
+import interfaces.Observers.ObserverOnDecisions;
+import interfaces.Observers.ObserverOnRuns;
+import main.Head;
+import optimization.Optimizer;
+import optimization.Optimizer.OptimizerDecreasing;
+import optimization.gap.UnitaryGap;
+import solver.Solver.Stopping;
+import utility.Kit;
+import variables.Variable;
+
+/**
+ * This class allows us to conduct an embarrassingly parallel search (EPS). After preprocessing, the master solver
+ * decomposes the problem into many consistent sub-problems by assigning the first variables selected by the variable
+ * ordering heuristic. Then, a pool of workers, each one with its own copy of the problem, solve the sub-problems taken
+ * from a shared queue. Solutions are counted over all workers, and for optimization, the best bound is shared so as to
+ * tighten the objective limit of each worker. When work stealing is activated, workers run a depth-first search
+ * (without restarts) on their sub-problems, and an idle worker may ask a busy worker for its oldest open right branch
+ * (a refutation x != a); the branch is rebuilt by the idle worker by replaying the decisions leading to it.
+ *
+ * @author Christophe Lecoutre
+ */
+public final class ParallelSearch {
+
+	/**
+	 * Class for workers, solving sub-problems until the queue is empty (or the search is over)
+	 */
+	private final class Worker implements Runnable, ObserverOnRuns, ObserverOnConflicts, ObserverOnDecisions {
+
+		/**
+		 * The head of the worker, with its own problem and solver
+		 */
+		private Head head;
+
+		/**
+		 * The number of solutions found by the worker that have already been taken into account by the master
+		 */
+		private long nPublishedSolutions;
+
+		/**
+		 * The bounds of the optimization interval after preprocessing (restored before each sub-problem, because
+		 * exhausting a sub-problem proves nothing about the whole problem)
+		 */
+		private long initialMinBound, initialMaxBound;
+
+		/**
+		 * Indicates if the worker is currently exploring a sub-problem
+		 */
+		private volatile boolean busy;
+
+		/**
+		 * Indicates if another worker (being idle) asks this worker for an open branch
+		 */
+		private volatile boolean stealRequested;
+
+		/**
+		 * The index of the next worker to be asked for an open branch
+		 */
+		private int victim;
+
+		@Override
+		public void beforePositiveDecision(Variable x, int a) {
+			if (stealRequested) {
+				stealRequested = false;
+				int[] path = head.solver.giveOldestOpenBranch();
+				if (path != null)
+					subproblems.add(path);
+			}
+		}
+
+		@Override
+		public void beforeRun() {
+		}
+
+		@Override
+		public void afterRun() {
+			publish(this);
+			tighten();
+			stopIfOver();
+		}
+
+		@Override
+		public void whenWipeout(Constraint c, Variable x) {
+			stopIfOver();
+		}
+
+		@Override
+		public void whenBacktrack() {
+			stopIfOver();
+		}
+
+		private void stopIfOver() {
+			if (over && head.solver.stopping == null)
+				head.solver.stopping = Stopping.REACHED_GOAL;
+		}
+
+		/**
+		 * Tightens the objective limit of the worker with respect to the best bound found by all workers, and
+		 * restores the other side of the optimization interval.
+		 *
+		 * @param newSubproblem
+		 *            true if a new sub-problem is about to be explored
+		 */
+		private void tighten(boolean newSubproblem) {
+			Optimizer optimizer = head.problem.optimizer;
+			if (optimizer == null)
+				return;
+			if (newSubproblem) {
+				if (optimizer.minimization) {
+					optimizer.minBound = initialMinBound;
+					optimizer.clb.limit(initialMinBound);
+				} else {
+					optimizer.maxBound = initialMaxBound;
+					optimizer.cub.limit(initialMaxBound);
+				}
+			}
+			synchronized (ParallelSearch.this) {
+				if (master.solutions.found == 0)
+					return;
+				long bound = master.solutions.bestBound;
+				boolean tightened = false;
+				if (optimizer.minimization && bound - 1 < optimizer.maxBound) {
+					optimizer.maxBound = bound - 1;
+					optimizer.cub.limit(optimizer.maxBound);
+					tightened = true;
+				} else if (!optimizer.minimization && bound + 1 > optimizer.minBound) {
+					optimizer.minBound = bound + 1;
+					optimizer.clb.limit(optimizer.minBound);
+					tightened = true;
+				}
+				if (tightened) {
+					head.solver.entailed.clear(); // the objective constraint may have been recorded as entailed
+					head.solver.restarter.forceRootPropagation = true;
+				}
+				if (optimizer.minimization ? bound - 1 < initialMinBound : bound + 1 > initialMaxBound)
+					stop(FULL_EXPLORATION); // the best found bound is proved to be optimal
+			}
+		}
+
+		private void tighten() {
+			tighten(false);
+		}
+
+		@Override
+		public void run() {
+			try {
+				head = new Head(Input.controlFilename);
+				head.observersConstruction.clear(); // workers are silent
+				head.loadProblem(master.head.instanceIndex);
+				Solver solver = head.buildSolver(head.problem);
+				solver.solutions.muteFinalResults();
+				solver.observersOnRuns.remove(head.output);
+				solver.observersOnRuns.add(this);
+				solver.addObserverOnConflicts(this);
+				if (workStealing) {
+					solver.addObserverOnDecisions(this);
+					head.control.restarts.cutoff = Long.MAX_VALUE; // depth-first search (no restarts)
+				}
+				if (head.problem.optimizer != null) {
+					initialMinBound = head.problem.optimizer.minBound;
+					initialMaxBound = head.problem.optimizer.maxBound;
+				}
+				if (solver.propagation.runInitially() == false) {
+					subproblems.clear(); // cannot happen in theory, since the master succeeded in preprocessing
+					return;
+				}
+				while (!over) {
+					nBusyWorkers.incrementAndGet(); // before polling, so that no work can be missed when terminating
+					int[] path = subproblems.poll();
+					if (path == null) {
+						nBusyWorkers.decrementAndGet();
+						if (!workStealing || nBusyWorkers.get() == 0 && subproblems.isEmpty())
+							break;
+						requestBranch();
+						continue;
+					}
+					busy = true;
+					tighten(true);
+					if (!over)
+						solver.exploreSubproblem(path);
+					busy = false;
+					nBusyWorkers.decrementAndGet();
+					publish(this);
+					if (!over && solver.stopping != FULL_EXPLORATION)
+						stop(solver.stopping);
+				}
+			} catch (Throwable e) {
+				crashed = true;
+				stop(null);
+				if (master.head.control.general.exceptionsVisible)
+					e.printStackTrace();
+			} finally {
+				if (head != null)
+					head.releaseSharedModel();
+			}
+		}
+
+		/**
+		 * Asks a busy worker for an open branch, and waits a little bit
+		 */
+		private void requestBranch() {
+			for (int i = 0; i < workers.length; i++) {
+				Worker worker = workers[(victim++ % workers.length)];
+				if (worker != this && worker.busy) {
+					worker.stealRequested = true;
+					break;
+				}
+			}
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Kit.exit(e);
+			}
+		}
+	}
+
+	/**
+	 * The master solver, used for decomposing the problem and for gathering results
+	 */
+	private final Solver master;
+
+	/**
+	 * The sub-problems that remain to be explored; each sub-problem is given by a sequence of decisions
+	 */
+	private final Queue<int[]> subproblems = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The workers solving sub-problems
+	 */
+	private final Worker[] workers;
+
+	/**
+	 * Indicates if idle workers can steal open branches from busy workers
+	 */
+	private final boolean workStealing;
+
+	/**
+	 * The number of workers currently exploring (or about to explore) a sub-problem
+	 */
+	private final AtomicInteger nBusyWorkers = new AtomicInteger();
+
+	/**
+	 * Indicates if the search is over (i.e., must be stopped by all workers)
+	 */
+	private volatile boolean over;
+
+	/**
+	 * Indicates if a worker crashed
+	 */
+	private volatile boolean crashed;
+
+	/**
+	 * The reason why the search has been stopped, when over
+	 */
+	private Stopping stopping;
+
+	/**
+	 * Builds an object conducting an embarrassingly parallel search for the specified (master) solver
+	 *
+	 * @param master
+	 *            the solver used for decomposing the problem and for gathering results
+	 */
+	public ParallelSearch(Solver master) {
+		this.master = master;
+		Optimizer optimizer = master.problem.optimizer;
+		control(optimizer == null || (optimizer instanceof OptimizerDecreasing && optimizer.gapStrategy instanceof UnitaryGap),
+				() -> "EPS is only compatible with the decreasing optimization strategy (and a unitary gap)");
+		control(!master.head.control.lns.enabled, () -> "EPS is not compatible with LNS");
+		this.workStealing = master.head.control.solving.workStealing;
+		this.workers = Stream.generate(Worker::new).limit(master.head.control.solving.nWorkers).toArray(Worker[]::new);
+	}
+
+	/**
+	 * Stops the search (for all workers)
+	 *
+	 * @param stopping
+	 *            the reason why the search is stopped
+	 */
+	private synchronized void stop(Stopping stopping) {
+		if (!over) {
+			over = true;
+			this.stopping = stopping;
+		}
+	}
+
+	/**
+	 * Takes into account the solutions found by the specified worker since the last call
+	 */
+	private synchronized void publish(Worker worker) {
+		Solutions solutions = worker.head.solver.solutions;
+		long n = solutions.found - worker.nPublishedSolutions;
+		if (n == 0)
+			return;
+		worker.nPublishedSolutions = solutions.found;
+		Solutions gathered = master.solutions;
+		Optimizer optimizer = master.problem.optimizer;
+		if (optimizer == null) {
+			gathered.found = Math.min(gathered.found + n, gathered.limit);
+			gathered.record(solutions.last);
+			if (gathered.found >= gathered.limit)
+				stop(Stopping.REACHED_GOAL);
+		} else {
+			boolean better = gathered.found == 0 || (optimizer.minimization ? solutions.bestBound < gathered.bestBound : solutions.bestBound > gathered.bestBound);
+			gathered.found += n;
+			if (better) {
+				gathered.bestBound = solutions.bestBound;
+				gathered.record(solutions.last);
+			}
+		}
+	}
+
+	/**
+	 * Collects the sub-problems obtained by assigning the variables selected by the heuristic until the specified
+	 * depth is reached, and returns true if some of them can be further decomposed
+	 */
+	private boolean collect(int depthLimit, int[] path, List<int[]> paths) {
+		int depth = master.depth();
+		if (master.futVars.size() == 0 || depth == depthLimit) {
+			paths.add(Arrays.copyOf(path, depth));
+			return master.futVars.size() > 0;
+		}
+		Variable x = master.heuristic.bestVariable();
+		int[] idxs = new int[x.dom.size()];
+		for (int a = x.dom.first(), i = 0; a != -1; a = x.dom.next(a))
+			idxs[i++] = a;
+		boolean decomposable = false;
+		for (int a : idxs) {
+			path[depth] = master.decisions.positiveDecisionFor(x.num, a);
+			master.assign(x, a);
+			if (master.propagation.runAfterAssignment(x))
+				decomposable = collect(depthLimit, path, paths) || decomposable;
+			master.backtrack(x);
+		}
+		return decomposable;
+	}
+
+	/**
+	 * Decomposes the problem into (at least, when possible) the specified number of consistent sub-problems, by
+	 * iteratively increasing the number of assigned variables
+	 *
+	 * @param nTargeted
+	 *            the targeted number of sub-problems
+	 * @return a list of sub-problems, each one given by a sequence of (positive) decisions
+	 */
+	private List<int[]> decompose(int nTargeted) {
+		control(master.depth() == 0);
+		List<int[]> paths = new ArrayList<>();
+		int[] path = new int[master.problem.variables.length];
+		for (int depthLimit = 1;; depthLimit++) {
+			paths.clear();
+			if (!collect(depthLimit, path, paths) || paths.size() >= nTargeted)
+				return paths;
+		}
+	}
+
+	/**
+	 * Conducts the parallel search: the problem is decomposed and the sub-problems are solved by the workers
+	 */
+	public void search() {
+		subproblems.addAll(decompose(workers.length * master.head.control.solving.epsFactor));
+		Kit.log.config("\n" + "c EPS with " + workers.length + " workers and " + subproblems.size() + " sub-problems");
+		Thread[] threads = Stream.of(workers).map(Thread::new).toArray(Thread[]::new);
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Kit.exit(e);
+			}
+		for (Worker worker : workers) {
+			if (worker.head == null || worker.head.solver == null)
+				continue;
+			Statistics stats = worker.head.solver.stats;
+			master.stats.nNodes += stats.nNodes;
+			master.stats.nDecisions += stats.nDecisions;
+			master.stats.nWrongDecisions += stats.nWrongDecisions;
+			master.stats.nBacktracks += stats.nBacktracks;
+			master.stats.nAssignments += stats.nAssignments;
+			master.stats.nFailedAssignments += stats.nFailedAssignments;
+		}
+		master.stopping = crashed ? null : over ? stopping : FULL_EXPLORATION;
+	}
+}
@@ -12,7 +12,7 @@ package solver;
 
 import static utility.Kit.control;
 
-import java.util.function.Supplier;
+import java.util.function.LongSupplier;
 
 import constraints.global.Extremum.ExtremumCst.MaximumCst.MaximumCstLE;
 import dashboard.Control.OptionsRestarts;
@@ -72,6 +72,9 @@ public class Restarter implements ObserverOnRuns {
 			baseCutoff = baseCutoff * options.resetCoefficient;
 			Kit.log.config("    ...resetting restart cutoff to " + baseCutoff);
 		}
+		// in portfolio mode, we import (at the root) the nogoods published by other workers
+		if (solver.nogoodReasoner != null && solver.nogoodReasoner.importSharedNogoods())
+			forceRootPropagation = true;
 		// we rerun propagation if a solution has just been found (since the objective constraint has changed), or if it
 		// must be forced anyway
 		boolean rerunPropagation = forceRootPropagation || (solver.problem.optimizer != null && numRun - 1 == solver.solutions.lastRun);
@@ -85,14 +88,14 @@ public class Restarter implements ObserverOnRuns {
 		if (currCutoff != Long.MAX_VALUE) {
 			this.offset = options.luby ? lubyCutoffFor(nRestartsSinceReset + (long) 1) * 150
 					: (long) (baseCutoff * Math.pow(options.factor, nRestartsSinceReset));
-			this.beforeRunCutoff = measureSupplier.get();
-			currCutoff = measureSupplier.get() + this.offset;
+			this.beforeRunCutoff = measureSupplier.getAsLong();
+			currCutoff = this.beforeRunCutoff + this.offset;
 		}
 		nRestartsSinceReset++;
 	}
 
 	public void extendCutoff() {
-		long cutoffAtNewBound = measureSupplier.get();
+		long cutoffAtNewBound = measureSupplier.getAsLong();
 		long diff = cutoffAtNewBound - this.beforeRunCutoff;
 		this.beforeRunCutoff = cutoffAtNewBound;
 		this.currCutoff += diff * this.solver.head.control.optimization.extCutoff;
@@ -113,9 +116,9 @@ public class Restarter implements ObserverOnRuns {
 	private OptionsRestarts options;
 
 	/**
-	 * The measure function used for handling cutoff values
+	 * The measure function used for handling cutoff values (a primitive supplier, so as to avoid boxing at each node)
 	 */
-	public final Supplier<Long> measureSupplier;
+	public final LongSupplier measureSupplier;
 
 	/**
 	 * The number of the current run;
@@ -156,7 +159,7 @@ public class Restarter implements ObserverOnRuns {
 	 * 
 	 * @return the method (supplier) to be used for computing the current measure
 	 */
-	private Supplier<Long> measureSupplier() {
+	private LongSupplier measureSupplier() {
 		Solver sb = solver != null ? solver : null;
 		switch (options.measure) {
 		case FAILED:
@@ -199,7 +202,7 @@ public class Restarter implements ObserverOnRuns {
 		Optimizer optimizer = solver.problem.optimizer;
 		if (optimizer != null && ((cnt++) % 5) == 0) // code for portfolio mode; hard coding
 			optimizer.possiblyUpdateLocalBounds();
-		if (measureSupplier.get() >= currCutoff)
+		if (measureSupplier.getAsLong() >= currCutoff)
 			return true;
 		if (optimizer == null || numRun != solver.solutions.lastRun)
 			return false;
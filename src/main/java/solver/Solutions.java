@@ -247,6 +247,14 @@ public final class Solutions {
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> displayFinalResults()));
 	}
 
+	/**
+	 * Prevents this object from displaying final results (used for workers in EPS mode, whose results are gathered and
+	 * displayed by the master)
+	 */
+	void muteFinalResults() {
+		lock.set(true);
+	}
+
 	/**
 	 * Displays final results when the solving process is finished (possibly, interrupted).
 	 */
@@ -293,7 +301,7 @@ public final class Solutions {
 		}
 	}
 
-	private void record(int[] t) {
+	void record(int[] t) {
 		Variable[] variables = solver.problem.variables;
 		assert t == null || t.length == variables.length;
 		last = last == null ? new int[variables.length] : last;
@@ -315,8 +323,9 @@ public final class Solutions {
 	public void handleNewSolution(boolean controlSolution) {
 		control(!controlSolution || controlFoundSolution());
 		found++;
-		this.lastBudget = this.solver.restarter.measureSupplier.get() - this.bestBoundTimestamp;
-		this.bestBoundTimestamp = this.solver.restarter.measureSupplier.get();
+		long measure = this.solver.restarter.measureSupplier.getAsLong();
+		this.lastBudget = measure - this.bestBoundTimestamp;
+		this.bestBoundTimestamp = measure;
 		this.solver.restarter.extendCutoff();
 		lastRun = solver.restarter.numRun;
 		// solutionHamming();
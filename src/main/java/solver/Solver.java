@@ -24,9 +24,9 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -39,6 +39,7 @@ import constraints.ConstraintGlobal;
 import heuristics.HeuristicValues;
 import heuristics.HeuristicValuesDynamic.Bivs;
 import heuristics.HeuristicVariables;
+import heuristics.HeuristicVariablesDynamic;
 import interfaces.Observers.ObserverOnAssignments;
 import interfaces.Observers.ObserverOnBacktracks.ObserverOnBacktracksSystematic;
 import interfaces.Observers.ObserverOnConflicts;
@@ -83,6 +84,7 @@ public class Solver implements ObserverOnBacktracksSystematic {
 	public void restoreBefore(int depth) {
 		stackedVariables.restoreBefore(depth);
 		entailed.restoreLimitAtLevel(depth);
+		stackedConstraints.restoreBefore(depth);
 	}
 
 	/**********************************************************************************************
@@ -184,7 +186,7 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		public void afterRun() {
 			if (stopped()) {
 				// observersOnRuns.remove(this); not possible while iterating this list
-				observersOnConflicts.remove(this);
+				removeObserverOnConflicts(this);
 				return;
 			}
 			Arrays.fill(branch, -1);
@@ -293,6 +295,67 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		}
 	}
 
+	/**
+	 * The object used for recording which constraints (with reversible structures) are possibly modified at each level
+	 * of search. This way, when backtracking, only these constraints are asked to restore their structures (instead of
+	 * broadcasting to all constraints).
+	 */
+	public final class StackedConstraints {
+
+		/**
+		 * The stacked constraints, in the order they have been recorded (so, by increasing depths)
+		 */
+		private Constraint[] stack;
+
+		/**
+		 * depths[i] is the depth at which the ith stacked constraint has been recorded
+		 */
+		private int[] depths;
+
+		/**
+		 * previousDepths[i] is the depth at which the ith stacked constraint was previously recorded (or -1)
+		 */
+		private int[] previousDepths;
+
+		/**
+		 * lastDepths[c] is the last depth at which the constraint whose num is c has been recorded (or -1)
+		 */
+		private final int[] lastDepths;
+
+		public int top = -1;
+
+		public StackedConstraints(int nConstraints, int capacity) {
+			this.stack = new Constraint[capacity];
+			this.depths = new int[capacity];
+			this.previousDepths = new int[capacity];
+			this.lastDepths = Kit.repeat(-1, nConstraints);
+		}
+
+		// must be called before making modifications (i.e., before running the propagator of the constraint)
+		public void push(Constraint c) {
+			int depth = depth();
+			if (lastDepths[c.num] == depth) // because, otherwise, already present
+				return;
+			if (top + 1 == stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+				depths = Arrays.copyOf(depths, depths.length * 2);
+				previousDepths = Arrays.copyOf(previousDepths, previousDepths.length * 2);
+			}
+			top++;
+			stack[top] = c;
+			depths[top] = depth;
+			previousDepths[top] = lastDepths[c.num];
+			lastDepths[c.num] = depth;
+		}
+
+		public void restoreBefore(int depth) {
+			for (; top >= 0 && depths[top] >= depth; top--) {
+				((ObserverOnBacktracksSystematic) stack[top]).restoreBefore(depth);
+				lastDepths[stack[top].num] = previousDepths[top];
+			}
+		}
+	}
+
 	public final class Proofer implements ObserverOnDecisions {
 
 		public final boolean[][] proofVariables;
@@ -390,35 +453,72 @@ public class Solver implements ObserverOnBacktracksSystematic {
 	public final List<ObserverOnRuns> observersOnRuns;
 
 	/**
-	 * The list of observers (that are systematically executed) on backtracks
+	 * The observers (that are systematically executed) on backtracks. Observers that are called at each node of the
+	 * search tree are stored in arrays so that they can be iterated over without allocating any iterator.
 	 */
-	public final List<ObserverOnBacktracksSystematic> observersOnBacktracksSystematic;
+	public final ObserverOnBacktracksSystematic[] observersOnBacktracksSystematic;
 
 	/**
-	 * The list of observers on decisions taken by the solver
+	 * The observers on decisions taken by the solver
 	 */
-	public List<ObserverOnDecisions> observersOnDecisions;
+	public ObserverOnDecisions[] observersOnDecisions;
 
 	/**
-	 * The list of observers on (explicitly) assignments performed by the solver
+	 * The observers on (explicitly) assignments performed by the solver
 	 */
-	public final List<ObserverOnAssignments> observersOnAssignments;
+	public final ObserverOnAssignments[] observersOnAssignments;
 
 	/**
-	 * The list of observers on removals, i.e., value deletions in domains. Whenever a domain is reduced, a callback
-	 * function is called.
+	 * The observers on removals, i.e., value deletions in domains. Whenever a domain is reduced, a callback function is
+	 * called.
 	 */
-	public final Collection<ObserverOnRemovals> observersOnRemovals;
+	public final ObserverOnRemovals[] observersOnRemovals;
 
 	/**
-	 * The list of observers on conflicts encountered during search
+	 * The observers on conflicts encountered during search
 	 */
-	public final List<ObserverOnConflicts> observersOnConflicts;
+	public ObserverOnConflicts[] observersOnConflicts;
 
 	private <T> List<T> collectObservers(Stream<?> stream, Class<T> clazz) {
 		return stream.filter(o -> o != null && clazz.isAssignableFrom(o.getClass())).map(o -> (T) o).collect(toCollection(ArrayList::new));
 	}
 
+	private <T> T[] collectObserversAsArray(Stream<?> stream, Class<T> clazz, IntFunction<T[]> generator) {
+		return collectObservers(stream, clazz).stream().toArray(generator);
+	}
+
+	/**
+	 * Adds the specified object to the observers on decisions
+	 * 
+	 * @param observer
+	 *            an observer on decisions
+	 */
+	public final void addObserverOnDecisions(ObserverOnDecisions observer) {
+		observersOnDecisions = Arrays.copyOf(observersOnDecisions, observersOnDecisions.length + 1);
+		observersOnDecisions[observersOnDecisions.length - 1] = observer;
+	}
+
+	/**
+	 * Adds the specified object to the observers on conflicts
+	 * 
+	 * @param observer
+	 *            an observer on conflicts
+	 */
+	public final void addObserverOnConflicts(ObserverOnConflicts observer) {
+		observersOnConflicts = Arrays.copyOf(observersOnConflicts, observersOnConflicts.length + 1);
+		observersOnConflicts[observersOnConflicts.length - 1] = observer;
+	}
+
+	/**
+	 * Removes the specified object from the observers on conflicts
+	 * 
+	 * @param observer
+	 *            an observer on conflicts
+	 */
+	public final void removeObserverOnConflicts(ObserverOnConflicts observer) {
+		observersOnConflicts = Stream.of(observersOnConflicts).filter(o -> o != observer).toArray(ObserverOnConflicts[]::new);
+	}
+
 	private List<ObserverOnSolving> collectObserversOnSolving() {
 		Stream<Object> stream = Stream.concat(Stream.of(problem.constraints), Stream.of(stats, head.output));
 		return collectObservers(stream, ObserverOnSolving.class);
@@ -433,30 +533,36 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		return collectObservers(stream, ObserverOnRuns.class);
 	}
 
-	private List<ObserverOnBacktracksSystematic> collectObserversOnBacktracksSystematic() {
-		// keep 'this' at first position in the list
-		Stream<Object> stream = Stream.concat(Stream.of(this, propagation), Stream.of(problem.constraints));
-		return collectObservers(stream, ObserverOnBacktracksSystematic.class);
+	private ObserverOnBacktracksSystematic[] collectObserversOnBacktracksSystematic() {
+		// keep 'this' at first position in the list; constraints are not present because they are stacked (when
+		// modified) in stackedConstraints
+		Stream<Object> stream = Stream.of(this, propagation);
+		return collectObserversAsArray(stream, ObserverOnBacktracksSystematic.class, ObserverOnBacktracksSystematic[]::new);
 	}
 
-	private List<ObserverOnDecisions> collectObserversOnDecisions() {
+	private ObserverOnDecisions[] collectObserversOnDecisions() {
 		Stream<Object> stream = Stream.of(this, lastConflict, proofer, tracer, stats);
-		return collectObservers(stream, ObserverOnDecisions.class);
+		return collectObserversAsArray(stream, ObserverOnDecisions.class, ObserverOnDecisions[]::new);
 	}
 
-	private List<ObserverOnAssignments> collectObserversOnAssignments() {
-		Stream<Object> stream = Stream.of(decisions, heuristic);
-		return collectObservers(stream, ObserverOnAssignments.class);
+	private Object heuristicHeap() {
+		return heuristic instanceof HeuristicVariablesDynamic ? ((HeuristicVariablesDynamic) heuristic).heap : null;
 	}
 
-	private List<ObserverOnRemovals> collectObserversOnRemovals() {
-		Stream<Object> stream = Stream.of(ipsReasoner != null ? ipsReasoner.explainer : null);
-		return collectObservers(stream, ObserverOnRemovals.class);
+	private ObserverOnAssignments[] collectObserversOnAssignments() {
+		// the heap (if any) must be after the heuristic because it reads scores updated by the heuristic
+		Stream<Object> stream = Stream.of(decisions, heuristic, heuristicHeap());
+		return collectObserversAsArray(stream, ObserverOnAssignments.class, ObserverOnAssignments[]::new);
 	}
 
-	private List<ObserverOnConflicts> collectObserversOnConflicts() {
+	private ObserverOnRemovals[] collectObserversOnRemovals() {
+		Stream<Object> stream = Stream.of(ipsReasoner != null ? ipsReasoner.explainer : null, heuristicHeap());
+		return collectObserversAsArray(stream, ObserverOnRemovals.class, ObserverOnRemovals[]::new);
+	}
+
+	private ObserverOnConflicts[] collectObserversOnConflicts() {
 		Stream<Object> stream = Stream.of(runProgressSaver, heuristic, ipsReasoner, tracer);
-		return collectObservers(stream, ObserverOnConflicts.class);
+		return collectObserversAsArray(stream, ObserverOnConflicts.class, ObserverOnConflicts[]::new);
 	}
 
 	/**********************************************************************************************
@@ -513,6 +619,12 @@ public class Solver implements ObserverOnBacktracksSystematic {
 	 */
 	public final StackedVariables stackedVariables;
 
+	/**
+	 * The object that records (stacks) the constraints whose reversible structures are possibly modified at every depth
+	 * of search
+	 */
+	public final StackedConstraints stackedConstraints;
+
 	/**
 	 * The object that allows us to record and reason with nogoods
 	 */
@@ -641,6 +753,7 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		int nLevels = problem.variables.length + 1;
 		int size = Stream.of(problem.variables).mapToInt(x -> x.dom.initSize()).reduce(0, (sum, domSize) -> sum + Math.min(nLevels, domSize));
 		this.stackedVariables = new StackedVariables(size + nLevels);
+		this.stackedConstraints = new StackedConstraints(problem.constraints.length, problem.constraints.length + nLevels);
 
 		this.nogoodReasoner = NogoodReasoner.buildFor(this); // may be null
 		this.ipsReasoner = IpsReasoner.buildFor(this); // may be null
@@ -681,6 +794,17 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		return stackedVariables.push(x);
 	}
 
+	/**
+	 * Records (stacks) the specified constraint, as its reversible structures are going to be modified at the current
+	 * depth. This must be called before running the propagator of a constraint that is an observer on backtracks.
+	 * 
+	 * @param c
+	 *            a constraint
+	 */
+	public void stackConstraint(Constraint c) {
+		stackedConstraints.push(c);
+	}
+
 	/**
 	 * Records the specified constraint as being entailed (at the current level)
 	 * 
@@ -714,8 +838,8 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		stats.whenAssignment(x, a);
 		futVars.remove(x);
 		x.assign(a);
-		for (ObserverOnAssignments obs : observersOnAssignments)
-			obs.afterAssignment(x, a);
+		for (int i = 0; i < observersOnAssignments.length; i++)
+			observersOnAssignments[i].afterAssignment(x, a);
 	}
 
 	/**
@@ -729,10 +853,10 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		int depthBeforeBacktrack = depth();
 		futVars.add(x);
 		x.unassign();
-		for (ObserverOnAssignments observer : observersOnAssignments)
-			observer.afterUnassignment(x);
-		for (ObserverOnBacktracksSystematic observer : observersOnBacktracksSystematic)
-			observer.restoreBefore(depthBeforeBacktrack);
+		for (int i = 0; i < observersOnAssignments.length; i++)
+			observersOnAssignments[i].afterUnassignment(x);
+		for (int i = 0; i < observersOnBacktracksSystematic.length; i++)
+			observersOnBacktracksSystematic[i].restoreBefore(depthBeforeBacktrack);
 		if (propagation instanceof Forward)
 			propagation.queue.clear();
 	}
@@ -771,8 +895,8 @@ public class Solver implements ObserverOnBacktracksSystematic {
 				}
 			}
 		}
-		for (ObserverOnDecisions observer : observersOnDecisions)
-			observer.beforePositiveDecision(x, a);
+		for (int i = 0; i < observersOnDecisions.length; i++)
+			observersOnDecisions[i].beforePositiveDecision(x, a);
 		assign(x, a);
 		boolean consistent = propagation.runAfterAssignment(x) && (ipsReasoner == null || ipsReasoner.whenOpeningNode());
 		if (!consistent) {
@@ -809,8 +933,8 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		if (x.dom instanceof DomainInfinite)
 			return false;
 
-		for (ObserverOnDecisions observer : observersOnDecisions)
-			observer.beforeNegativeDecision(x, a);
+		for (int i = 0; i < observersOnDecisions.length; i++)
+			observersOnDecisions[i].beforeNegativeDecision(x, a);
 		decisions.addNegativeDecision(x, a);
 		x.dom.removeElementary(a);
 		boolean consistent = x.dom.size() > 0;
@@ -823,8 +947,8 @@ public class Solver implements ObserverOnBacktracksSystematic {
 		}
 		if (!consistent) {
 			stats.nBacktracks++;
-			for (ObserverOnConflicts observer : observersOnConflicts)
-				observer.whenBacktrack();
+			for (int i = 0; i < observersOnConflicts.length; i++)
+				observersOnConflicts[i].whenBacktrack();
 			if (futVars.nPast() == 0)
 				stopping = Stopping.FULL_EXPLORATION;
 		}
@@ -883,8 +1007,12 @@ public class Solver implements ObserverOnBacktracksSystematic {
 						backtrackLevel = Math.max(backtrackLevel, x.dom.lastRemovedLevel());
 					}
 					assert backtrackLevel != -1;
-					while (depth() > backtrackLevel)
-						backtrack(futVars.lastPast());
+					Variable boundary = lastPastBeforeRun[nRecursiveRuns - 1]; // e.g., the last variable of an EPS path
+					if (boundary != null && backtrackLevel < boundary.assignmentLevel && !head.control.lns.enabled)
+						stopping = Stopping.FULL_EXPLORATION; // no better solution below the variables assigned before the run
+					else
+						while (depth() > backtrackLevel)
+							backtrack(futVars.lastPast());
 					// check with java -ea ace Photo.xml.lzma -ev ; java -ea ace Recipe.xml.lzma
 				}
 				if (problem.framework == COP) // && isEntailed(objectiveCtr)) TODO why is-it incorrect to use
@@ -951,6 +1079,18 @@ public class Solver implements ObserverOnBacktracksSystematic {
 	private final void doSearch() {
 		for (ObserverOnSolving observer : observersOnSolving)
 			observer.beforeSearch();
+		if (head.control.solving.nWorkers > 1)
+			new ParallelSearch(this).search();
+		else
+			doRuns();
+		for (ObserverOnSolving observer : observersOnSolving)
+			observer.afterSearch();
+	}
+
+	/**
+	 * Executes successive runs until the search is finished
+	 */
+	private final void doRuns() {
 		while (!finished() && !restarter.allRunsFinished()) {
 			for (ObserverOnRuns observer : observersOnRuns)
 				observer.beforeRun();
@@ -974,8 +1114,73 @@ public class Solver implements ObserverOnBacktracksSystematic {
 			for (ObserverOnRuns observer : observersOnRuns)
 				observer.afterRun();
 		}
-		for (ObserverOnSolving observer : observersOnSolving)
-			observer.afterSearch();
+	}
+
+	/**
+	 * Explores the sub-problem obtained by replaying the specified decisions (codes of positive and negative decisions,
+	 * as given by the object decisions). This is used by workers in EPS mode: runs (and so, restarts) are confined
+	 * below the variables assigned by the decisions. The solver is brought back to the root node at the end.
+	 * 
+	 * @param path
+	 *            a sequence of decisions leading to the sub-problem
+	 */
+	final void exploreSubproblem(int[] path) {
+		control(depth() == 0 && (path.length == 0 || path[0] > 0));
+		stopping = null;
+		restarter.reset();
+		solutions.lastRun = -1;
+		if (nogoodReasoner != null)
+			nogoodReasoner.reset(); // nogoods extracted from runs are only valid below the assigned variables
+		boolean consistent = true;
+		for (int i = 0; consistent && i < path.length; i++) {
+			Variable x = decisions.varIn(path[i]);
+			int a = decisions.idxIn(path[i]);
+			if (path[i] > 0) {
+				consistent = x.dom.contains(a);
+				if (consistent) {
+					assign(x, a);
+					consistent = propagation.runAfterAssignment(x);
+				}
+			} else if (x.dom.contains(a)) {
+				consistent = x.dom.size() > 1;
+				if (consistent) {
+					decisions.addNegativeDecision(x, a);
+					x.dom.removeElementary(a);
+					consistent = propagation.runAfterRefutation(x);
+				}
+			}
+		}
+		if (consistent)
+			doRuns();
+		else
+			stopping = FULL_EXPLORATION;
+		backtrackToTheRoot();
+	}
+
+	/**
+	 * Gives away the oldest open right branch of the current run, i.e., the refutation of the first positive decision
+	 * taken after the variables assigned before the run. The current run is then confined below this positive
+	 * decision. This is used for work stealing between workers in EPS mode.
+	 * 
+	 * @return the decisions leading to the right branch that is given away, or null if there is no such branch
+	 */
+	final int[] giveOldestOpenBranch() {
+		Variable boundary = nRecursiveRuns == 0 ? null : lastPastBeforeRun[nRecursiveRuns - 1];
+		if (boundary == null)
+			return null; // right branches at the root cannot be given away (removals at the root are permanent)
+		SetDense set = decisions.set;
+		int boundaryDecision = decisions.positiveDecisionFor(boundary.num, boundary.dom.single());
+		int i = 0;
+		while (i <= set.limit && set.dense[i] != boundaryDecision)
+			i++;
+		for (i++; i <= set.limit && set.dense[i] < 0; i++)
+			;
+		if (i > set.limit)
+			return null;
+		int[] path = Arrays.copyOf(set.dense, i + 1);
+		path[i] = -set.dense[i];
+		lastPastBeforeRun[nRecursiveRuns - 1] = decisions.varIn(set.dense[i]);
+		return path;
 	}
 
 	/**
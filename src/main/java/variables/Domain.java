@@ -582,8 +582,9 @@ public interface Domain extends SetLinked {
 		int depth = propagation().solver.stackVariable(x); // stacking variables (to keep track of propagation) must
 															// always be performed before domain reduction
 		remove(a, depth);
-		for (ObserverOnRemovals observer : x.problem.solver.observersOnRemovals)
-			observer.afterRemoval(x, a);
+		ObserverOnRemovals[] observers = x.problem.solver.observersOnRemovals;
+		for (int i = 0; i < observers.length; i++)
+			observers[i].afterRemoval(x, a);
 		x.problem.nValueRemovals++;
 	}
 
@@ -701,8 +702,9 @@ public interface Domain extends SetLinked {
 		int depth = propagation().solver.stackVariable(x); // stacking variables must always be performed before domain
 															// reduction
 		int nRemovals = reduceTo(a, depth);
-		for (ObserverOnRemovals observer : x.problem.solver.observersOnRemovals)
-			observer.afterRemovals(x, nRemovals);
+		ObserverOnRemovals[] observers = x.problem.solver.observersOnRemovals;
+		for (int i = 0; i < observers.length; i++)
+			observers[i].afterRemovals(x, nRemovals);
 		x.problem.nValueRemovals += nRemovals;
 		assert nRemovals >= 0 && size() == 1 : "nRemovals: " + nRemovals + " size:" + size();
 		return nRemovals;
@@ -542,6 +542,12 @@ public abstract class Variable implements ObserveronBacktracksUnsystematic, Comp
 	 */
 	public Constraint[] ctrs;
 
+	/**
+	 * The dynamic degree of the variable, i.e., the number of constraints involving this variable and at least another
+	 * future variable. It is maintained incrementally by constraints when variables are assigned and unassigned.
+	 */
+	public int dynamicDegree;
+
 	/**
 	 * The set of variables that are neighbors to the variable. Two variables are neighbors if they are involved
 	 * together in a constraint. This array may be null if this is too costly in term of memory space.
@@ -584,6 +590,7 @@ public abstract class Variable implements ObserveronBacktracksUnsystematic, Comp
 	 */
 	public final void storeInvolvingConstraints(List<Constraint> constraints) {
 		this.ctrs = constraints.stream().toArray(Constraint[]::new);
+		this.dynamicDegree = (int) Stream.of(ctrs).filter(c -> c.scp.length >= 2).count(); // all variables are initially future
 		assert IntStream.range(0, ctrs.length - 1).allMatch(i -> ctrs[i].scp.length <= ctrs[i + 1].scp.length);
 		this.nghs = problem.variables.length > NB_VARIABLES_LIMIT_FOR_STORING_NEIGHBOURS ? null : computeNeighbours(NB_NEIGHBOURS_LIMIT_FOR_STORING_NEIGHBOURS);
 		this.failed = new int[dom.initSize()];
@@ -768,11 +775,8 @@ public abstract class Variable implements ObserveronBacktracksUnsystematic, Comp
 	 * @return the dynamic degree of this variable
 	 */
 	public final int ddeg() {
-		int cnt = 0;
-		for (Constraint c : ctrs)
-			if (c.futvars.size() >= 2)
-				cnt++;
-		return cnt;
+		assert dynamicDegree == Stream.of(ctrs).filter(c -> c.futvars.size() >= 2).count();
+		return dynamicDegree;
 	}
 
 	/**
@@ -1,9 +1,16 @@
 package problems;
 
 import static org.junit.Assert.assertEquals;
+import static org.xcsp.common.Constants.STAR;
+import static org.xcsp.common.predicates.XNodeParent.ge;
+import static org.xcsp.common.predicates.XNodeParent.gt;
+import static org.xcsp.common.predicates.XNodeParent.le;
+import static org.xcsp.common.predicates.XNodeParent.lt;
+import static org.xcsp.common.predicates.XNodeParent.ne;
 import static problems.UtilityForTests.runResolution;
 
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 
@@ -17,7 +24,9 @@ import org.xcsp.common.Utilities;
 import org.xcsp.modeler.api.ProblemAPI;
 import org.xcsp.modeler.problems.AllInterval;
 
+import constraints.extension.structures.TableHybrid.HybridTuple;
 import main.Head;
+import problem.Problem;
 
 @RunWith(Parameterized.class)
 public class TestAllSolutions {
@@ -64,6 +73,7 @@ public class TestAllSolutions {
 		add("/csp/Zebra", 48);
 
 		add("/csp/AllInterval-10", 148);
+		add("/csp/AllInterval-10", null, null, "-g_ad=4", 148); // bounds consistency
 		add("/csp/AllInterval-aux-10", 104);
 		add("/csp/Bibd-6-0-0-3-8", null, null, "-valh=Rand", 494);
 		add("/csp/Bibd-aux-6-0-0-3-8", null, null, "-valh=Rand", 494);
@@ -91,6 +101,8 @@ public class TestAllSolutions {
 		add("/csp/QuasiGroup-base-v6-8", 1440);
 		// add("/csp/QuasiGroup-base-v7-9", 5040); // long
 		add("/csp/QueensKnights-6-4", 1664);
+		add("/csp/QueensKnights-6-4", null, null, "-workers=2", 1664); // EPS
+		add("/csp/QueensKnights-6-4", null, null, "-workers=3 -ws -eps_f=1", 1664); // EPS with work stealing
 		add("/csp/SchurrLemma-6-6", 39870);
 		add("/csp/SchurrLemma-mod-8-8", 141120);
 		add("/csp/SocialGolfers-01-4-4-5", 2);
@@ -108,12 +120,16 @@ public class TestAllSolutions {
 		add("/csp/Futoshiki-Futoshiki_futo3_0", 1);
 		add("/csp/Kakuro-Kakuro_easy-000", 1);
 		add("/csp/Kakuro-table-Kakuro_easy-000", 1);
+		add("/csp/Kakuro-table-Kakuro_easy-000", null, null, "-aln=4 -negative=ctn", 1);
 		add("/csp/LatinSquare2-LatinSquare2_7-2-0", 480);
 		add("/csp/Lightup-Lightup_example", 1);
 		add("/csp/Lits-Lits-example", 1636);
 		add("/csp/MagicSquare-4-None", 7040);
+		add("/csp/MagicSquare-4-None", null, null, "-g_ad=4", 7040); // bounds consistency
 		add("/csp/MarketSplit-MarketSplit_04", 1); // long
 		add("/csp/Nonogram-Nonogram_example", 1);
+		add("/csp/Nonogram-Nonogram_example", null, null, "-imdd", 1);
+		add("/csp/Nonogram-Nonogram_example", null, null, "-fmdd -extnt=2", 1);
 		add("/csp/Nonogram-table-Nonogram_example", 1);
 		add("/csp/RoomMate-RoomMate_sr0006", 2);
 		add("/csp/Sat-clause-Sat_flat30-16", 1482);
@@ -128,6 +144,10 @@ public class TestAllSolutions {
 
 		add("/csp/CarSequencing-CarSequencing_dingbas", 6);
 		add("/csp/CarSequencing-table-CarSequencing_dingbas", 6);
+		add("/csp/CarSequencing-table-CarSequencing_dingbas", null, null, "-ohl=0", 6);
+		add("/csp/CarSequencing-table-CarSequencing_dingbas", null, null, "-ohl=0 -mm", 6);
+		add("/csp/CarSequencing-table-CarSequencing_dingbas", null, null, "-extnt=2", 6);
+		add("/csp/CarSequencing-table-CarSequencing_dingbas", null, null, "-workers=2 -sm", 6); // EPS with shared tables
 		add("/csp/MisteryShopper-MisteryShopper_04", 501552); // long
 		add("/csp/SolitaireBattleship-SolitaireBattleship-battleship_instances-00113", 1);
 		add("/csp/SolitaireBattleship-SolitaireBattleship_sb-12-12-5-0", 51);
@@ -153,6 +173,36 @@ public class TestAllSolutions {
 		for (int[] t : new int[][] { { 2, 18 }, { 3, 81 }, { 4, 324 }, { 5, 1215 }, { 6, 4374 } })
 			add(ElementVariableProblem.class, t);
 
+		for (int[] t : new int[][] { { 6, 146 }, { 7, 259 }, { 8, 408 } }) {
+			add(HybridProblem.class, null, t[0] + "", "", t[1]);
+			add(HybridProblem.class, null, t[0] + "", "-hct", t[1]);
+		}
+
+		for (int[] t : new int[][] { { 3, 6 }, { 4, 24 }, { 5, 120 } }) {
+			add(AllDifferentLargeProblem.class, null, t[0] + "", "", t[1]); // bounds consistency by default (large domains)
+			add(AllDifferentLargeProblem.class, null, t[0] + "", "-g_adbl=2000", t[1]);
+		}
+
+		for (int[] t : new int[][] { { 5, 0 }, { 6, 72 }, { 7, 480 }, { 8, 1800 } }) {
+			add(CumulativeProblem.class, null, t[0] + "", "", t[1]);
+			add(CumulativeProblem.class, null, t[0] + "", "-ttef", t[1]);
+		}
+
+		for (int[] t : new int[][] { { 5, 50 }, { 6, 180 } }) {
+			add(NoOverlapProblem.class, null, t[0] + "", "", t[1]);
+			add(NoOverlapProblem.class, null, t[0] + "", "-g_no=3", t[1]);
+		}
+
+		for (int[] t : new int[][] { { 3, 0 }, { 4, 10080 } }) {
+			add(PackingProblem.class, null, t[0] + "", "", t[1]);
+			add(PackingProblem.class, null, t[0] + "", "-g_no=3", t[1]);
+		}
+
+		for (int[] t : new int[][] { { 3, 225 }, { 4, 1536 }, { 5, 6615 } }) {
+			add(NoOverlapOptionalProblem.class, null, t[0] + "", "", t[1]);
+			add(NoOverlapOptionalProblem.class, null, t[0] + "", "-g_no=3", t[1]);
+		}
+
 		return collection;
 	}
 
@@ -166,6 +216,17 @@ public class TestAllSolutions {
 		}
 	}
 
+	static class AllDifferentLargeProblem implements ProblemAPI {
+		int n;
+
+		@Override
+		public void model() {
+			Var[] x = array("x", size(n), dom(range(1000)));
+			allDifferent(x);
+			sum(x, EQ, n * (n - 1) / 2);
+		}
+	}
+
 	static class ElementVariableProblem implements ProblemAPI {
 		int n;
 
@@ -178,6 +239,68 @@ public class TestAllSolutions {
 		}
 	}
 
+	static class HybridProblem implements ProblemAPI {
+		int n;
+
+		@Override
+		public void model() {
+			Var[] x = array("x", size(4), dom(range(n)));
+			Problem problem = (Problem) imp();
+			problem.hybrid(vars(x[0], x[1], x[2]), new HybridTuple(new int[] { 0, STAR, STAR }, ge(x[1], 3)),
+					new HybridTuple(new int[] { STAR, STAR, 5 }, le(x[0], 2), ne(x[1], 1)), new HybridTuple(new int[] { STAR, 2, STAR }, lt(x[0], x[2])),
+					new HybridTuple(Arrays.asList(gt(x[0], 3), le(x[2], 1))));
+			problem.hybrid(vars(x[1], x[2], x[3]), new HybridTuple(new int[] { STAR, STAR, 1 }, ne(x[1], x[2])),
+					new HybridTuple(Arrays.asList(ge(x[1], 4), le(x[3], 2))), new HybridTuple(new int[] { STAR, 0, STAR }, gt(x[3], x[1])),
+					new HybridTuple(new int[] { 3, 3, STAR }));
+		}
+	}
+
+	static class CumulativeProblem implements ProblemAPI {
+		int horizon;
+
+		@Override
+		public void model() {
+			int[] lengths = { 1, 3, 1, 1, 1 }, heights = { 2, 1, 2, 1, 2 };
+			Var[] s = array("s", size(lengths.length), i -> dom(range(horizon - lengths[i] + 1)));
+			cumulative(s, lengths, heights, 2);
+		}
+	}
+
+	static class NoOverlapProblem implements ProblemAPI {
+		int horizon;
+
+		@Override
+		public void model() {
+			int[] lengths = { 2, 1, 0, 3 }; // the task of length 0 is ignored
+			Var[] s = array("s", size(lengths.length), dom(range(horizon)));
+			noOverlap(s, lengths);
+		}
+	}
+
+	static class NoOverlapOptionalProblem implements ProblemAPI {
+		int horizon;
+
+		@Override
+		public void model() {
+			int[][] lengths = { { 2, 3 }, { 0, 1, 2 }, { 0, 2 }, { 1 }, { 0 } }; // tasks of length 0 are ignored
+			Var[] s = array("s", size(lengths.length), dom(range(horizon)));
+			Var[] l = array("l", size(lengths.length), i -> dom(lengths[i]));
+			noOverlap(s, l);
+		}
+	}
+
+	static class PackingProblem implements ProblemAPI {
+		int side;
+
+		@Override
+		public void model() {
+			int[][] sizes = { { 2, 2 }, { 1, 3 }, { 3, 1 }, { 1, 1 }, { 2, 1 }, { 0, 2 } }; // the item of width 0 is ignored
+			Var[] x = array("x", size(sizes.length), i -> dom(range(side - sizes[i][0] + 1)));
+			Var[] y = array("y", size(sizes.length), i -> dom(range(side - sizes[i][1] + 1)));
+			noOverlap(transpose(x, y), sizes);
+		}
+	}
+
 	@Parameter(0)
 	public String args;
 
@@ -0,0 +1,89 @@
+package problems;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.Collection;
+import java.util.LinkedList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.xcsp.common.Utilities;
+
+import dashboard.Input;
+import interfaces.Observers.ObserverOnDecisions;
+import main.Head;
+import solver.Solver;
+import variables.Variable;
+
+@RunWith(Parameterized.class)
+public class TestAllocations {
+
+	static Collection<Object[]> collection = new LinkedList<>();
+
+	static void add(String instance, String options) {
+		URL url = Head.class.getResource(instance + ".xml.lzma");
+		Utilities.control(url != null, "not found: " + instance + ".xml.lzma");
+		// a single run (no restart) so as to observe the steady state of the search
+		collection.add(new Object[] { url.getPath() + " " + options + " -r_c=" + Long.MAX_VALUE + " -ng=NO" });
+	}
+
+	@Parameters(name = "{index}: {0} allocates no memory at search nodes")
+	public static Collection<Object[]> data() {
+		add("/csp/Crossword-lex-vg-5-6", "-varh=DdegOnDom");
+		add("/csp/Crossword-lex-vg-5-6", "-varh=DdegOnDom -positive=str2");
+		add("/csp/Crossword-lex-vg-5-6", "-varh=DdegOnDom -positive=cmddo");
+		return collection;
+	}
+
+	@Parameter(0)
+	public String args;
+
+	/**
+	 * Measures the number of bytes allocated by the search thread between two given numbers of nodes
+	 */
+	private static class AllocationMeter implements ObserverOnDecisions {
+
+		private static final long FROM = 20000, TO = 60000;
+
+		private final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		private final Solver solver;
+
+		private long nBytes = -1;
+
+		private boolean started, stopped;
+
+		private AllocationMeter(Solver solver) {
+			this.solver = solver;
+		}
+
+		@Override
+		public void beforePositiveDecision(Variable x, int a) {
+			if (!started && solver.stats.nNodes >= FROM) {
+				started = true;
+				nBytes = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			} else if (started && !stopped && solver.stats.nNodes >= TO) {
+				stopped = true;
+				nBytes = bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - nBytes;
+			}
+		}
+	}
+
+	@Test
+	public void test() {
+		Input.loadArguments(args.split("\\s+"));
+		Head head = new Head();
+		Solver solver = head.buildSolver(head.loadProblem(0));
+		AllocationMeter meter = new AllocationMeter(solver);
+		solver.addObserverOnDecisions(meter);
+		solver.solve();
+		assertTrue("too few nodes", meter.stopped);
+		// a few bytes may be allocated once (e.g., lazily built structures), but never at each node
+		assertTrue(meter.nBytes + " bytes allocated", meter.nBytes < (AllocationMeter.TO - AllocationMeter.FROM) / 100);
+	}
+}
@@ -0,0 +1,67 @@
+package problems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.LinkedList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.xcsp.common.Utilities;
+
+import dashboard.Input;
+import main.Head;
+
+/**
+ * Two heads are run one after the other as in portfolio mode: the second one must import the nogoods published by the
+ * first one (only if their models are identical), and still find the right result.
+ */
+@RunWith(Parameterized.class)
+public class TestNogoodExchange {
+
+	static Collection<Object[]> collection = new LinkedList<>();
+
+	static void add(String instance, String options1, String options2, boolean compatible, int nSolutions) {
+		URL url = Head.class.getResource(instance + ".xml.lzma");
+		Utilities.control(url != null, "not found: " + instance + ".xml.lzma");
+		collection.add(new Object[] { url.getPath() + " " + options1, url.getPath() + " " + options2, compatible, nSolutions });
+	}
+
+	@Parameters(name = "{index}: {0} then {1}")
+	public static Collection<Object[]> data() {
+		add("/csp/ColouredQueens-6", "-varh=Dom", "", true, 0);
+		add("/csp/ColouredQueens-6", "-varh=Dom -sm", "-sm", true, 0);
+		add("/csp/ColouredQueens-6", "-varh=Dom", "-g_ad=1", false, 0); // different constraints for the second head
+		return collection;
+	}
+
+	@Parameter(0)
+	public String args1;
+
+	@Parameter(1)
+	public String args2;
+
+	@Parameter(2)
+	public boolean compatible;
+
+	@Parameter(3)
+	public int nSolutions;
+
+	private static Head runAsPortfolioHead(String args) {
+		return UtilityForTests.runResolution(args, () -> Input.portfolio = true);
+	}
+
+	@Test
+	public void test() {
+		Head first = runAsPortfolioHead(args1 + " -s=1");
+		Head second = runAsPortfolioHead(args2 + " -s=1");
+		assertTrue(first.solver.nogoodReasoner.nPublishedNogoods > 0);
+		assertEquals(compatible, second.solver.nogoodReasoner.nImportedNogoods > 0);
+		assertEquals(nSolutions, second.solver.solutions.found);
+	}
+}
@@ -23,7 +23,11 @@ public class TestOptimumCost {
 	static Collection<Object[]> collection = new LinkedList<>();
 
 	static void add(Object instance, String variant, String data, int value) {
-		String pars = " -ev";
+		add(instance, variant, data, "", value);
+	}
+
+	static void add(Object instance, String variant, String data, String options, int value) {
+		String pars = " -ev" + (options.length() > 0 ? " " + options : "");
 		if (instance instanceof Class<?>) {
 			variant = variant != null ? " -variant=" + variant : "";
 			data = data != null ? " -data=" + data : "";
@@ -65,6 +69,7 @@ public class TestOptimumCost {
 		add("/cop/ChangeMaking-compact-10", 1);
 		// add("/cop/CoinsGrid-10-4", 98); // long
 		add("/cop/GolombRuler-8", 34);
+		add("/cop/GolombRuler-8", null, null, "-workers=2", 34); // EPS
 		add("/cop/GolombRuler-aux-8", 34);
 		add("/cop/GolombRuler-dec-8", 34);
 		add("/cop/LowAutocorrelation-16", 24);
@@ -79,6 +84,7 @@ public class TestOptimumCost {
 		add("/cop/Ramsey-10", 2);
 		add("/cop/StillLife-7-7", 28);
 		add("/cop/StillLife-wastage-8-8", 36);
+		add("/cop/StillLife-wastage-8-8", null, null, "-cpl=0", 36);
 		add("/cop/WaterBucket-8-5-3-4-4-0-8", 7);
 
 		add("/cop/Amaze-Amaze_simple", 12);
@@ -125,9 +131,11 @@ public class TestOptimumCost {
 		add("/cop/QuadraticAssignment-QuadraticAssignment_qap", 4776);
 		add("/cop/Rack-Rack_r2", 1100);
 		add("/cop/Rcpsp-Rcpsp_j30-01-01", 43);
+		add("/cop/Rcpsp-Rcpsp_j30-01-01", null, null, "-ttef", 43);
 		add("/cop/Rlfap-card-Rlfap_card-scen-04", 46);
 		add("/cop/Rlfap-span-Rlfap_span-scen-05", 792);
 		add("/cop/SchedulingFS-SchedulingFS-Taillard-os-04-04-0", 302);
+		add("/cop/SchedulingFS-SchedulingFS-Taillard-os-04-04-0", null, null, "-g_no=3", 302);
 		// add("/cop/Tal-Tal-frobserved-7-15-11-13-9-1-11-7-4_1", 142); // long
 		// add("/cop/TemplateDesign-TemplateDesign_catfood_2", 2); // very long
 		add("/cop/TravelingPurchaser-TravelingPurchaser-7-5-30-1", 124);
@@ -138,6 +146,10 @@ public class TestOptimumCost {
 		add("/cop/Warehouse-Warehouse_example", 383);
 
 		add(SimpleObjectiveProblem.class, null, null, 3);
+		for (int n : new int[] { 4, 6 }) { // EPS with deep decompositions (paths fixing the objective)
+			add(AllDifferentSumProblem.class, null, n + "", "-workers=2 -eps_f=100 -varh=Lexico", n * (n - 1) / 2);
+			add(AllDifferentSumProblem.class, null, n + "", "-workers=3 -eps_f=1000 -ws", n * (n - 1) / 2);
+		}
 
 		return collection;
 	}
@@ -153,6 +165,17 @@ public class TestOptimumCost {
 		}
 	}
 
+	static class AllDifferentSumProblem implements ProblemAPI {
+		int n;
+
+		@Override
+		public void model() {
+			Var[] x = array("x", size(n), dom(range(n + 2)));
+			allDifferent(x);
+			minimize(SUM, x);
+		}
+	}
+
 	@Parameter(0)
 	public String args;
 
@@ -41,6 +41,14 @@ public class TestWrongDecisions {
 		add("/csp/Crossword-lex-vg-5-6", 9199, "-varh=DdegOnDom -positive=str2");
 		add("/csp/Crossword-lex-vg-5-6", 9199, "-varh=DdegOnDom -positive=str3");
 		add("/csp/Crossword-lex-vg-5-6", 9199, "-varh=DdegOnDom -positive=cmddo");
+		add("/csp/Crossword-lex-vg-5-6", 9199, "-varh=DdegOnDom -positive=cmddo -fmdd");
+		add("/csp/Crossword-lex-vg-5-6", 9199, "-varh=DdegOnDom -positive=cmdd4r");
+		add("/csp/Crossword-lex-vg-5-6", 1996, "-varh=Ddeg");
+		add("/csp/Rlfap-scen-11-f06", 15739, "-varh=WdegOnDom -heap");
+		add("/csp/Rlfap-scen-11-f06", 16771, "-varh=WdegOnDom -ngbl=100");
+		add("/csp/Crossword-lex-vg-5-6", 2426, "-varh=WdegOnDom -heap");
+		add("/csp/Crossword-lex-vg-5-6", 14880, "-varh=WdegOnDom -wt=chs -heap");
+		add("/csp/Crossword-lex-vg-5-6", 9199, "-varh=Dom -heap");
 		return collection;
 	}
 
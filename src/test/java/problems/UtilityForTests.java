@@ -6,9 +6,11 @@ import main.HeadExtraction;
 
 public class UtilityForTests {
 
-	private static Head runHeadMethod(String args, boolean extraction) {
+	private static Head runHeadMethod(String args, boolean extraction, Runnable afterLoading) {
 		System.out.println("\nCommand : " + args);
 		Input.loadArguments(args.split("\\s+"));
+		if (afterLoading != null)
+			afterLoading.run();
 		Head resolution = extraction ? new HeadExtraction() : new Head();
 		try {
 			resolution.start();
@@ -21,10 +23,17 @@ public class UtilityForTests {
 	}
 
 	public static Head runResolution(String args) {
-		return runHeadMethod(args, false);
+		return runHeadMethod(args, false, null);
+	}
+
+	/**
+	 * Runs a head after having called the specified object once arguments are loaded (e.g., to simulate portfolio mode)
+	 */
+	public static Head runResolution(String args, Runnable afterLoading) {
+		return runHeadMethod(args, false, afterLoading);
 	}
 
 	public static HeadExtraction runExtraction(String args) {
-		return (HeadExtraction) runHeadMethod(args, true);
+		return (HeadExtraction) runHeadMethod(args, true, null);
 	}
 }